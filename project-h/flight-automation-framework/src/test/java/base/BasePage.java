@@ -1,8 +1,15 @@
 package base;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.openqa.selenium.By;
 import org.openqa.selenium.ElementClickInterceptedException;
@@ -16,7 +23,11 @@ import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
 
+import utils.Log;
+
 public abstract class BasePage {
+    private static final Map<String, String> SCRIPTS = new ConcurrentHashMap<>();
+
     protected WebDriver driver;
     protected WebDriverWait wait;
 
@@ -104,6 +115,108 @@ public abstract class BasePage {
         ((JavascriptExecutor) driver).executeScript("arguments[0].scrollIntoView({block: 'center'});", element);
     }
 
+    // The probes run in order against one deadline, so the whole call never takes more than timeout
+    public boolean awaitReady(Duration timeout, ReadinessProbe... probes) {
+        long start = System.currentTimeMillis();
+        long deadline = start + timeout.toMillis();
+        for (ReadinessProbe probe : probes) {
+            WebDriverWait readyWait = new WebDriverWait(driver,
+                    Duration.ofMillis(Math.max(0, deadline - System.currentTimeMillis())), Duration.ofMillis(100));
+            readyWait.ignoring(StaleElementReferenceException.class);
+            try {
+                readyWait.until(webDriver -> probe.isReady(webDriver));
+            } catch (TimeoutException e) {
+                Log.warn("Readiness probe timed out: " + probe.describe());
+                return false;
+            }
+        }
+        Log.debug(() -> "Page ready in " + (System.currentTimeMillis() - start) + " ms");
+        return true;
+    }
+
+    // Concatenates classpath scripts (shared helpers first) and caches the result
+    protected static String loadScript(String... resources) {
+        return SCRIPTS.computeIfAbsent(String.join("+", resources), ignored -> {
+            StringBuilder script = new StringBuilder();
+            for (String name : resources) {
+                try (InputStream input = BasePage.class.getClassLoader().getResourceAsStream(name)) {
+                    if (input == null) {
+                        throw new IllegalStateException("Script resource not found: " + name);
+                    }
+                    script.append(new String(input.readAllBytes(), StandardCharsets.UTF_8)).append('\n');
+                } catch (IOException e) {
+                    throw new IllegalStateException("Failed to read script resource " + name, e);
+                }
+            }
+            return script.toString();
+        });
+    }
+
+    // Turns By lists into {using, value} pairs that in-page scripts can evaluate themselves
+    protected static List<Map<String, String>> toScriptLocators(List<By> locators) {
+        List<Map<String, String>> converted = new ArrayList<>();
+        for (By locator : locators) {
+            if (!(locator instanceof By.Remotable)) {
+                throw new IllegalArgumentException("Locator cannot be evaluated in page: " + locator);
+            }
+            By.Remotable.Parameters parameters = ((By.Remotable) locator).getRemoteParameters();
+            Map<String, String> pair = new HashMap<>();
+            pair.put("using", parameters.using());
+            pair.put("value", String.valueOf(parameters.value()));
+            converted.add(pair);
+        }
+        return converted;
+    }
+
+    // Evaluates a whole locator cascade in page with one executeScript instead of a findElements and
+    // isDisplayed per candidate and element; null when nothing is visible or the script cannot run
+    protected VisibleMatch probeFirstVisible(List<By> locators) {
+        return probeFirstVisible(locators, false);
+    }
+
+    protected VisibleMatch probeFirstVisible(List<By> locators, boolean enabledOnly) {
+        if (locators.isEmpty()) {
+            return null;
+        }
+        try {
+            Object raw = ((JavascriptExecutor) driver).executeScript(
+                    loadScript("js/locator-helpers.js", "js/first-visible.js"), toScriptLocators(locators), enabledOnly);
+            if (raw instanceof Map && ((Map<?, ?>) raw).get("element") instanceof WebElement) {
+                int index = ((Number) ((Map<?, ?>) raw).get("locator")).intValue();
+                return new VisibleMatch(index, locators.get(index), (WebElement) ((Map<?, ?>) raw).get("element"));
+            }
+        } catch (WebDriverException e) {
+            Log.debug(() -> "Visibility probe failed: " + e.getMessage());
+        }
+        return null;
+    }
+
+    protected WebElement awaitFirstVisible(List<By> locators, Duration timeout) {
+        try {
+            return new WebDriverWait(driver, timeout).until(webDriver -> {
+                VisibleMatch match = probeFirstVisible(locators);
+                return match == null ? null : match.element;
+            });
+        } catch (TimeoutException e) {
+            return null;
+        }
+    }
+
+    // False when nothing visible and enabled matches or the click itself is refused, e.g. an overlay intercepts it
+    protected boolean clickFirstVisible(List<By> locators) {
+        VisibleMatch match = probeFirstVisible(locators, true);
+        if (match == null) {
+            return false;
+        }
+        try {
+            safeClick(match.element);
+            return true;
+        } catch (WebDriverException e) {
+            Log.debug(() -> "Click on " + match.locator + " failed: " + e.getMessage());
+            return false;
+        }
+    }
+
     protected void waitForTitleContains(String text) {
         wait.until(ExpectedConditions.titleContains(text));
     }
@@ -151,4 +264,17 @@ public abstract class BasePage {
         } catch (WebDriverException ignored) {
         }
     }
+
+    // The winning candidate of a probe: its index in the list passed in, the locator and the element
+    protected static final class VisibleMatch {
+        public final int index;
+        public final By locator;
+        public final WebElement element;
+
+        private VisibleMatch(int index, By locator, WebElement element) {
+            this.index = index;
+            this.locator = locator;
+            this.element = element;
+        }
+    }
 }
@@ -1,43 +1,91 @@
 package base;
 
+import java.lang.reflect.Method;
+
+import org.openqa.selenium.PageLoadStrategy;
 import org.openqa.selenium.WebDriver;
-import org.testng.annotations.AfterClass;
-import org.testng.annotations.BeforeClass;
+import org.testng.ITestResult;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
 
 import pages.FlightsPage;
 import pages.HomePage;
 import pages.SearchResultsPage;
 import utils.ConfigReader;
 import utils.DriverFactory;
+import utils.Log;
+import utils.TestContext;
 
 public class BaseTest {
-    protected WebDriver driver;
-    protected HomePage homePage;
-    protected FlightsPage flightsPage;
-    protected SearchResultsPage searchResultsPage;
+    private static final ThreadLocal<WebDriver> DRIVER = new ThreadLocal<>();
+    private static final ThreadLocal<HomePage> HOME_PAGE = new ThreadLocal<>();
+    private static final ThreadLocal<FlightsPage> FLIGHTS_PAGE = new ThreadLocal<>();
+    private static final ThreadLocal<SearchResultsPage> SEARCH_RESULTS_PAGE = new ThreadLocal<>();
 
-    @BeforeClass
-    public void setUp() {
+    @BeforeMethod(alwaysRun = true)
+    public void setUp(Method method) {
+        TestContext.setTestName(method.getDeclaringClass().getSimpleName() + "." + method.getName());
         try {
-            driver = DriverFactory.createInstance();
+            WebDriver driver = DriverFactory.acquire();
+            DRIVER.set(driver);
             String baseUrl = ConfigReader.getProperty("baseUrl");
             if (baseUrl == null || baseUrl.trim().isEmpty()) {
                 throw new IllegalStateException("baseUrl is missing in config.properties");
             }
             driver.get(baseUrl);
-            homePage = new HomePage(driver);
-            flightsPage = new FlightsPage(driver);
-            searchResultsPage = new SearchResultsPage(driver);
+            HomePage homePage = new HomePage(driver);
+            if (DriverFactory.resolvePageLoadStrategy() != PageLoadStrategy.NORMAL) {
+                homePage.waitForPageReady(baseUrl);
+            }
+            HOME_PAGE.set(homePage);
+            FLIGHTS_PAGE.set(new FlightsPage(driver));
+            SEARCH_RESULTS_PAGE.set(new SearchResultsPage(driver));
         } catch (Exception e) {
-            System.out.println("Setup failed: " + e.getMessage());
+            Log.error("Setup failed: " + e.getMessage());
             throw new RuntimeException(e);
         }
     }
 
-    @AfterClass(alwaysRun = true)
-    public void tearDown() {
+    @AfterMethod(alwaysRun = true)
+    public void tearDown(ITestResult result) {
+        // Verbose lines are only worth reading when something went wrong
+        if (result.getStatus() == ITestResult.FAILURE) {
+            Log.flushRecent(result.getThrowable() == null ? "failed" : "failed: " + result.getThrowable());
+        } else {
+            Log.discardRecent();
+        }
+        WebDriver driver = DRIVER.get();
+        DRIVER.remove();
+        HOME_PAGE.remove();
+        FLIGHTS_PAGE.remove();
+        SEARCH_RESULTS_PAGE.remove();
         if (driver != null) {
-            driver.quit();
+            DriverFactory.release(driver);
         }
+        TestContext.clear();
+    }
+
+    protected WebDriver getDriver() {
+        WebDriver driver = DRIVER.get();
+        if (driver == null) {
+            throw new IllegalStateException("No driver bound to thread " + Thread.currentThread().getName());
+        }
+        return driver;
+    }
+
+    protected HomePage getHomePage() {
+        return HOME_PAGE.get();
+    }
+
+    protected FlightsPage getFlightsPage() {
+        return FLIGHTS_PAGE.get();
+    }
+
+    protected void setFlightsPage(FlightsPage flightsPage) {
+        FLIGHTS_PAGE.set(flightsPage);
+    }
+
+    protected SearchResultsPage getSearchResultsPage() {
+        return SEARCH_RESULTS_PAGE.get();
     }
 }
@@ -0,0 +1,66 @@
+package base;
+
+import java.util.List;
+import java.util.Locale;
+
+import org.testng.IAlterSuiteListener;
+import org.testng.xml.XmlSuite;
+
+import utils.ConfigReader;
+import utils.Log;
+
+public class ParallelSuiteListener implements IAlterSuiteListener {
+
+    // Only keys given as a system property or a non-empty config value override testng.xml
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        String mode = readSetting("parallel");
+        String threads = readSetting("threadCount");
+        XmlSuite.ParallelMode parallelMode = mode == null
+                ? null : XmlSuite.ParallelMode.getValidParallel(mode.toLowerCase(Locale.ENGLISH));
+        for (XmlSuite suite : suites) {
+            if (parallelMode != null) {
+                suite.setParallel(parallelMode);
+            }
+            if (threads != null && suite.getParallel().isParallel()) {
+                suite.setThreadCount(resolveThreadCount(threads));
+            }
+            if (suite.getParallel().isParallel()) {
+                checkProfileNotShared(suite);
+            }
+        }
+        if (parallelMode != null || threads != null) {
+            Log.info("TestNG parallel mode: " + suites.get(0).getParallel() + ", thread-count: " + suites.get(0).getThreadCount());
+        }
+    }
+
+    // Chrome locks its user-data-dir, so concurrent sessions cannot share one fixed profile directory
+    private void checkProfileNotShared(XmlSuite suite) {
+        String profileDir = readSetting("chromeProfileDir");
+        if (profileDir != null || ConfigReader.getBooleanProperty("reuseProfile", false)) {
+            throw new IllegalArgumentException("Suite '" + suite.getName() + "' runs with parallel=" + suite.getParallel()
+                    + " but " + (profileDir != null ? "chromeProfileDir=" + profileDir : "reuseProfile=true")
+                    + " makes every session share one Chrome profile; unset it to use per-session profile clones");
+        }
+    }
+
+    private int resolveThreadCount(String value) {
+        int threadCount = 0;
+        try {
+            threadCount = Integer.parseInt(value);
+        } catch (NumberFormatException ignored) {
+        }
+        return threadCount > 0 ? threadCount : Runtime.getRuntime().availableProcessors();
+    }
+
+    private String readSetting(String key) {
+        String value = System.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            value = ConfigReader.getProperty(key);
+        }
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        return value.trim();
+    }
+}
@@ -0,0 +1,122 @@
+package base;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+@FunctionalInterface
+public interface ReadinessProbe {
+    boolean isReady(WebDriver driver);
+
+    default String describe() {
+        return "custom probe";
+    }
+
+    static ReadinessProbe documentInteractive() {
+        return named("document interactive", driver -> {
+            Object state = ((JavascriptExecutor) driver).executeScript("return document.readyState;");
+            return "interactive".equals(state) || "complete".equals(state);
+        });
+    }
+
+    // Right after driver.get under pageLoadStrategy=none the previous document (a pooled session's
+    // about:blank, or the last page) can still answer "complete", so the document must also be the
+    // requested one: same host, ignoring www., and a path under the requested path, so redirects
+    // that add a trailing slash, query or sub-path still count
+    static ReadinessProbe documentInteractive(String requestedUrl) {
+        return named("document interactive at " + requestedUrl, driver -> {
+            Object raw = ((JavascriptExecutor) driver).executeScript("return [document.readyState, location.href];");
+            if (!(raw instanceof List) || ((List<?>) raw).size() != 2) {
+                return false;
+            }
+            Object state = ((List<?>) raw).get(0);
+            return ("interactive".equals(state) || "complete".equals(state))
+                    && isAt(String.valueOf(((List<?>) raw).get(1)), requestedUrl);
+        });
+    }
+
+    private static boolean isAt(String currentUrl, String requestedUrl) {
+        try {
+            URI current = URI.create(currentUrl);
+            URI requested = URI.create(requestedUrl);
+            if (current.getHost() == null || requested.getHost() == null
+                    || !bareHost(current).equals(bareHost(requested))) {
+                return false;
+            }
+            String path = trimSlash(requested.getPath());
+            String currentPath = trimSlash(current.getPath());
+            return currentPath.equals(path) || currentPath.startsWith(path + "/");
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static String bareHost(URI uri) {
+        String host = uri.getHost().toLowerCase(Locale.ENGLISH);
+        return host.startsWith("www.") ? host.substring(4) : host;
+    }
+
+    private static String trimSlash(String path) {
+        String trimmed = path == null ? "" : path;
+        while (trimmed.endsWith("/")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1);
+        }
+        return trimmed;
+    }
+
+    static ReadinessProbe attached(By locator) {
+        return named("attached " + locator, driver -> !driver.findElements(locator).isEmpty());
+    }
+
+    static ReadinessProbe anyAttached(List<By> locators) {
+        return named("any attached of " + locators.size() + " locators", driver -> {
+            for (By locator : locators) {
+                if (!driver.findElements(locator).isEmpty()) {
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    static ReadinessProbe interactive(By locator) {
+        return anyInteractive(Arrays.asList(locator));
+    }
+
+    static ReadinessProbe anyInteractive(List<By> locators) {
+        return named("any interactive of " + locators.size() + " locators", driver -> {
+            for (By locator : locators) {
+                for (WebElement element : driver.findElements(locator)) {
+                    if (element.isDisplayed() && element.isEnabled()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        });
+    }
+
+    static ReadinessProbe script(String description, String booleanScript) {
+        return named(description, driver -> Boolean.TRUE.equals(((JavascriptExecutor) driver).executeScript(booleanScript)));
+    }
+
+    static ReadinessProbe named(String description, ReadinessProbe probe) {
+        return new ReadinessProbe() {
+            @Override
+            public boolean isReady(WebDriver driver) {
+                return probe.isReady(driver);
+            }
+
+            @Override
+            public String describe() {
+                return description;
+            }
+        };
+    }
+}
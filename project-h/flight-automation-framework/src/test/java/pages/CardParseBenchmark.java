@@ -0,0 +1,98 @@
+package pages;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import utils.FareTokenizer;
+import utils.HtmlDocument;
+import utils.ParallelParser;
+
+// Times serial against parallel card parsing on synthetic result pages of growing size and reports
+// the smallest page where the pool wins. Use it to pick parseParallelThreshold for a given host:
+//   java -cp <test classpath> pages.CardParseBenchmark [sizes...]
+// Only per-card parsing is timed; building the HtmlDocument is serial in both modes.
+public final class CardParseBenchmark {
+    private static final String[] AIRLINES = {"IndiGo", "Air India", "Akasa Air", "SpiceJet", "Vistara"};
+    private static final int RUNS = 21;
+
+    private CardParseBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int[] sizes = args.length == 0
+                ? new int[] {5, 10, 25, 50, 100, 250, 500, 1000, 2000}
+                : Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+        System.out.println("Parallelism " + ParallelParser.parallelism() + ", median of " + RUNS + " runs");
+        System.out.println(String.format("%8s %12s %12s %8s", "cards", "serial us", "parallel us", "speedup"));
+        int crossover = -1;
+        for (int size : sizes) {
+            List<HtmlDocument.Element> cards = ResultsSnapshotParser.findCards(HtmlDocument.parse(page(size))).elements;
+            if (cards.size() != size) {
+                throw new IllegalStateException("Expected " + size + " cards, found " + cards.size());
+            }
+            long[] medians = medians(cards);
+            System.out.println(String.format("%8d %12d %12d %7.2fx", size, medians[0] / 1000, medians[1] / 1000,
+                    (double) medians[0] / medians[1]));
+            // The crossover is where parallel starts winning and keeps winning for every larger page
+            if (medians[1] < medians[0]) {
+                if (crossover < 0) {
+                    crossover = size;
+                }
+            } else {
+                crossover = -1;
+            }
+        }
+        System.out.println(crossover < 0
+                ? "Parallel parsing did not win consistently; keep parseParallelism=1 on this host"
+                : "Parallel parsing wins from " + crossover + " cards; set parseParallelThreshold near that");
+    }
+
+    // Serial and parallel runs alternate so JIT, GC and frequency drift hit both modes alike
+    private static long[] medians(List<HtmlDocument.Element> cards) {
+        for (int i = 0; i < 5; i++) {
+            ResultsSnapshotParser.parseCards(cards, false);
+            ResultsSnapshotParser.parseCards(cards, true);
+        }
+        long[] serial = new long[RUNS];
+        long[] parallel = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            serial[i] = time(cards, false);
+            parallel[i] = time(cards, true);
+        }
+        Arrays.sort(serial);
+        Arrays.sort(parallel);
+        return new long[] {serial[RUNS / 2], parallel[RUNS / 2]};
+    }
+
+    private static long time(List<HtmlDocument.Element> cards, boolean parallel) {
+        long start = System.nanoTime();
+        List<SearchResultsPage.FlightInfo> flights = ResultsSnapshotParser.parseCards(cards, parallel);
+        long elapsed = System.nanoTime() - start;
+        if (flights.size() != cards.size()) {
+            throw new IllegalStateException("Parsed " + flights.size() + " of " + cards.size() + " cards");
+        }
+        return elapsed;
+    }
+
+    private static String page(int cards) {
+        StringBuilder html = new StringBuilder("<html><body><div class=\"results-wrapper\">");
+        for (int i = 0; i < cards; i++) {
+            int departure = (i * 37) % 1440;
+            int arrival = (departure + 95 + i % 120) % 1440;
+            int fare = 3000 + (i * 7919) % 9000;
+            html.append("<div class=\"shadow-card flex\" data-key=\"card-").append(i).append("\">")
+                    .append("<div class=\"logo\"><img src=\"/logo.png\" alt=\"").append(AIRLINES[i % AIRLINES.length]).append("\"></div>")
+                    .append("<p class=\"airline-name\">").append(AIRLINES[i % AIRLINES.length]).append("</p>")
+                    .append("<span>6E ").append(1000 + i).append("</span>")
+                    .append("<div class=\"timing\"><p class=\"time\">").append(FareTokenizer.formatTime(departure)).append("</p><p>BLR</p></div>")
+                    .append("<div class=\"duration\"><p>").append((arrival - departure + 1440) % 1440 / 60).append("h ")
+                    .append((arrival - departure + 1440) % 60).append("m</p><p>Non-stop</p></div>")
+                    .append("<div class=\"timing\"><p class=\"time\">").append(FareTokenizer.formatTime(arrival)).append("</p><p>DEL</p></div>")
+                    .append("<div class=\"price-block\"><span class=\"strike\">&#8377;").append(String.format(Locale.ENGLISH, "%,d", fare + 600))
+                    .append("</span> <span class=\"price-value\">&#8377;").append(String.format(Locale.ENGLISH, "%,d", fare)).append("</span></div>")
+                    .append("</div>");
+        }
+        return html.append("</div></body></html>").toString();
+    }
+}
@@ -0,0 +1,150 @@
+package pages;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonException;
+
+import pages.SearchResultsPage.FlightInfo;
+import utils.FareTokenizer;
+
+// Schema-tolerant reader for search API payloads: any JSON object carrying both a fare and
+// an airline is treated as one itinerary, in the order it appears in the payload.
+public final class FlightPayloadParser {
+    private static final List<String> PRICE_KEYS = Arrays.asList(
+            "totalFare", "displayFare", "finalPrice", "fare", "price", "totalPrice", "amount", "baseFare");
+    private static final List<String> PRICE_NESTED_KEYS = Arrays.asList("total", "amount", "value", "totalFare", "display");
+    private static final List<String> AIRLINE_KEYS = Arrays.asList(
+            "airlineName", "airline", "carrierName", "carrier", "marketingAirline", "operatingAirline", "airlineCode");
+    private static final List<String> DEPARTURE_KEYS = Arrays.asList(
+            "departureTime", "depTime", "deptTime", "departure", "departureDateTime", "departs");
+    private static final List<String> ARRIVAL_KEYS = Arrays.asList(
+            "arrivalTime", "arrTime", "arrival", "arrivalDateTime", "arrives");
+    private static final List<String> ORIGIN_KEYS = Arrays.asList("origin", "from", "source", "departureAirport");
+    private static final List<String> DESTINATION_KEYS = Arrays.asList("destination", "to", "arrivalAirport");
+    private static final Pattern CLOCK = Pattern.compile("(\\d{1,2}):(\\d{2})");
+
+    private FlightPayloadParser() {
+    }
+
+    public static List<FlightInfo> parse(String body) {
+        List<FlightInfo> flights = new ArrayList<>();
+        if (body == null || body.isEmpty()) {
+            return flights;
+        }
+        Object root;
+        try {
+            root = new Json().toType(body, Object.class);
+        } catch (JsonException e) {
+            return flights;
+        }
+        collect(root, flights, 0);
+        return flights;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void collect(Object node, List<FlightInfo> flights, int depth) {
+        if (depth > 32 || node == null) {
+            return;
+        }
+        if (node instanceof List) {
+            for (Object child : (List<Object>) node) {
+                collect(child, flights, depth + 1);
+            }
+            return;
+        }
+        if (!(node instanceof Map)) {
+            return;
+        }
+        Map<String, Object> object = (Map<String, Object>) node;
+        FlightInfo flight = toFlight(object);
+        if (flight != null) {
+            flights.add(flight);
+            return;
+        }
+        for (Object child : object.values()) {
+            collect(child, flights, depth + 1);
+        }
+    }
+
+    private static FlightInfo toFlight(Map<String, Object> object) {
+        int price = readPrice(object);
+        String airline = readName(object, AIRLINE_KEYS);
+        if (price <= 0 || airline.isEmpty()) {
+            return null;
+        }
+        String departure = readClock(object, DEPARTURE_KEYS);
+        String arrival = readClock(object, ARRIVAL_KEYS);
+        String from = readName(object, ORIGIN_KEYS);
+        String to = readName(object, DESTINATION_KEYS);
+        return new FlightInfo(airline, price, departure, arrival, String.valueOf(price), from, to);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int readPrice(Map<String, Object> object) {
+        for (String key : PRICE_KEYS) {
+            int price = priceOf(object.get(key));
+            if (price > 0) {
+                return price;
+            }
+            if (object.get(key) instanceof Map) {
+                Map<String, Object> nested = (Map<String, Object>) object.get(key);
+                for (String nestedKey : PRICE_NESTED_KEYS) {
+                    price = priceOf(nested.get(nestedKey));
+                    if (price > 0) {
+                        return price;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    // Strings such as "₹5,120 ₹4,899" go through FareTokenizer, which keeps the final fare instead of gluing the digits
+    private static int priceOf(Object value) {
+        if (value instanceof Number) {
+            return (int) Math.round(((Number) value).doubleValue());
+        }
+        if (value instanceof String) {
+            return FareTokenizer.finalFare((String) value);
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String readName(Map<String, Object> object, List<String> keys) {
+        for (String key : keys) {
+            Object value = object.get(key);
+            if (value instanceof String && !((String) value).trim().isEmpty()) {
+                return ((String) value).trim();
+            }
+            if (value instanceof Map) {
+                Map<String, Object> nested = (Map<String, Object>) value;
+                for (String nestedKey : Arrays.asList("name", "displayName", "code", "city", "iata")) {
+                    Object nestedValue = nested.get(nestedKey);
+                    if (nestedValue instanceof String && !((String) nestedValue).trim().isEmpty()) {
+                        return ((String) nestedValue).trim();
+                    }
+                }
+            }
+        }
+        return "";
+    }
+
+    private static String readClock(Map<String, Object> object, List<String> keys) {
+        String raw = readName(object, keys);
+        if (raw.isEmpty()) {
+            return "";
+        }
+        Matcher matcher = CLOCK.matcher(raw);
+        if (matcher.find()) {
+            return String.format("%02d:%s", Integer.parseInt(matcher.group(1)), matcher.group(2));
+        }
+        return raw;
+    }
+}
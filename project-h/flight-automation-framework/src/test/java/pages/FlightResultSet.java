@@ -0,0 +1,281 @@
+package pages;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import pages.SearchResultsPage.FlightInfo;
+
+// Column-per-field view of a result list: prices and minutes-of-day live in int arrays and text
+// columns are dictionary coded, so sorting, top-K and range filters work on primitive row indexes.
+// Rows are materialised back into FlightInfo only when a caller asks for one.
+public final class FlightResultSet {
+    public static final int NO_TIME = -1;
+
+    private final List<String> dictionary;
+    private final Map<String, Integer> codes;
+    private int[] prices;
+    private int[] departureMinutes;
+    private int[] arrivalMinutes;
+    private int[] airlineCodes;
+    private int[] fromCodes;
+    private int[] toCodes;
+    private int[] rawPriceCodes;
+    private int size;
+
+    private FlightResultSet(int capacity, List<String> dictionary, Map<String, Integer> codes) {
+        this.dictionary = dictionary;
+        this.codes = codes;
+        prices = new int[capacity];
+        departureMinutes = new int[capacity];
+        arrivalMinutes = new int[capacity];
+        airlineCodes = new int[capacity];
+        fromCodes = new int[capacity];
+        toCodes = new int[capacity];
+        rawPriceCodes = new int[capacity];
+    }
+
+    public static FlightResultSet of(Collection<FlightInfo> flights) {
+        FlightResultSet set = new FlightResultSet(Math.max(flights.size(), 8), new ArrayList<>(), new HashMap<>());
+        for (FlightInfo flight : flights) {
+            set.add(flight);
+        }
+        return set;
+    }
+
+    public void add(FlightInfo flight) {
+        if (size == prices.length) {
+            grow();
+        }
+        prices[size] = flight.getPrice();
+        departureMinutes[size] = minutesOfDay(flight.getDepartureTime());
+        arrivalMinutes[size] = minutesOfDay(flight.getArrivalTime());
+        airlineCodes[size] = code(flight.getAirline());
+        fromCodes[size] = code(flight.getFromLocation());
+        toCodes[size] = code(flight.getToLocation());
+        rawPriceCodes[size] = code(flight.getRawPriceText());
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int price(int row) {
+        return prices[checkRow(row)];
+    }
+
+    public int departureMinutes(int row) {
+        return departureMinutes[checkRow(row)];
+    }
+
+    public int arrivalMinutes(int row) {
+        return arrivalMinutes[checkRow(row)];
+    }
+
+    public int airlineId(int row) {
+        return airlineCodes[checkRow(row)];
+    }
+
+    public String airline(int row) {
+        return dictionary.get(airlineCodes[checkRow(row)]);
+    }
+
+    public FlightInfo get(int row) {
+        checkRow(row);
+        return new FlightInfo(dictionary.get(airlineCodes[row]), prices[row], formatMinutes(departureMinutes[row]),
+                formatMinutes(arrivalMinutes[row]), dictionary.get(rawPriceCodes[row]),
+                dictionary.get(fromCodes[row]), dictionary.get(toCodes[row]));
+    }
+
+    // Row indexes ordered by price, ties kept in insertion order. Each (price, row) pair is packed
+    // into one long (offset price in the high 32 bits, row in the low 31) so a primitive sort does the work.
+    public int[] sortIndexByPrice() {
+        long[] keys = new long[size];
+        for (int row = 0; row < size; row++) {
+            keys[row] = (((long) prices[row] - Integer.MIN_VALUE) << 31) | row;
+        }
+        Arrays.sort(keys);
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = (int) (keys[i] & Integer.MAX_VALUE);
+        }
+        return order;
+    }
+
+    // The k cheapest rows, cheapest first, using a bounded max-heap of row indexes: O(n log k)
+    public int[] topKByPrice(int k) {
+        int limit = Math.min(k, size);
+        if (limit <= 0) {
+            return new int[0];
+        }
+        int[] heap = new int[limit];
+        int heapSize = 0;
+        for (int row = 0; row < size; row++) {
+            if (heapSize < limit) {
+                heap[heapSize] = row;
+                siftUp(heap, heapSize++);
+            } else if (isCheaper(row, heap[0])) {
+                heap[0] = row;
+                siftDown(heap, heapSize);
+            }
+        }
+        int[] result = new int[limit];
+        for (int i = limit - 1; i >= 0; i--) {
+            result[i] = heap[0];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize);
+        }
+        return result;
+    }
+
+    // Rows with minPrice <= price <= maxPrice, in insertion order
+    public int[] rowsInPriceRange(int minPrice, int maxPrice) {
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (prices[row] >= minPrice && prices[row] <= maxPrice) {
+                count++;
+            }
+        }
+        int[] rows = new int[count];
+        int next = 0;
+        for (int row = 0; row < size && next < count; row++) {
+            if (prices[row] >= minPrice && prices[row] <= maxPrice) {
+                rows[next++] = row;
+            }
+        }
+        return rows;
+    }
+
+    // New set holding just the given rows; shares this set's dictionary
+    public FlightResultSet select(int[] rows) {
+        FlightResultSet selected = new FlightResultSet(Math.max(rows.length, 8), dictionary, codes);
+        for (int row : rows) {
+            checkRow(row);
+            int target = selected.size++;
+            selected.prices[target] = prices[row];
+            selected.departureMinutes[target] = departureMinutes[row];
+            selected.arrivalMinutes[target] = arrivalMinutes[row];
+            selected.airlineCodes[target] = airlineCodes[row];
+            selected.fromCodes[target] = fromCodes[row];
+            selected.toCodes[target] = toCodes[row];
+            selected.rawPriceCodes[target] = rawPriceCodes[row];
+        }
+        return selected;
+    }
+
+    public static int minutesOfDay(String time) {
+        if (time == null) {
+            return NO_TIME;
+        }
+        int hours = 0;
+        int minutes = 0;
+        int digits = 0;
+        boolean afterColon = false;
+        int i = 0;
+        for (; i < time.length(); i++) {
+            char c = time.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (afterColon) {
+                    minutes = minutes * 10 + (c - '0');
+                } else {
+                    hours = hours * 10 + (c - '0');
+                }
+                digits++;
+            } else if (c == ':' && !afterColon && digits > 0) {
+                afterColon = true;
+            } else if (digits > 0) {
+                break;
+            }
+        }
+        if (!afterColon || hours > 23 || minutes > 59) {
+            return NO_TIME;
+        }
+        String suffix = time.substring(i).trim().toUpperCase();
+        if (suffix.startsWith("PM") && hours < 12) {
+            hours += 12;
+        } else if (suffix.startsWith("AM") && hours == 12) {
+            hours = 0;
+        }
+        return hours * 60 + minutes;
+    }
+
+    private static String formatMinutes(int minutes) {
+        return minutes == NO_TIME ? "" : String.format("%02d:%02d", minutes / 60, minutes % 60);
+    }
+
+    private int code(String value) {
+        String key = value == null ? "" : value;
+        Integer existing = codes.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        int assigned = dictionary.size();
+        dictionary.add(key);
+        codes.put(key, assigned);
+        return assigned;
+    }
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " outside result set of size " + size);
+        }
+        return row;
+    }
+
+    private void grow() {
+        int capacity = prices.length * 2;
+        prices = Arrays.copyOf(prices, capacity);
+        departureMinutes = Arrays.copyOf(departureMinutes, capacity);
+        arrivalMinutes = Arrays.copyOf(arrivalMinutes, capacity);
+        airlineCodes = Arrays.copyOf(airlineCodes, capacity);
+        fromCodes = Arrays.copyOf(fromCodes, capacity);
+        toCodes = Arrays.copyOf(toCodes, capacity);
+        rawPriceCodes = Arrays.copyOf(rawPriceCodes, capacity);
+    }
+
+    // Heap order is "most expensive on top"; equal prices break on row so results stay deterministic
+    private boolean isCheaper(int row, int other) {
+        return prices[row] < prices[other] || (prices[row] == prices[other] && row < other);
+    }
+
+    private void siftUp(int[] heap, int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!isCheaper(heap[parent], heap[index])) {
+                return;
+            }
+            swap(heap, parent, index);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int[] heap, int heapSize) {
+        int index = 0;
+        while (true) {
+            int left = index * 2 + 1;
+            int right = left + 1;
+            int largest = index;
+            if (left < heapSize && isCheaper(heap[largest], heap[left])) {
+                largest = left;
+            }
+            if (right < heapSize && isCheaper(heap[largest], heap[right])) {
+                largest = right;
+            }
+            if (largest == index) {
+                return;
+            }
+            swap(heap, index, largest);
+            index = largest;
+        }
+    }
+
+    private static void swap(int[] heap, int a, int b) {
+        int tmp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = tmp;
+    }
+}
@@ -4,28 +4,38 @@ package pages;
 
 import java.time.Duration;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.time.format.TextStyle;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.util.Map;
 
 import org.openqa.selenium.By;
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.Keys;
 import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.WebDriverWait;
 
 import base.BasePage;
+import base.ReadinessProbe;
+import utils.AirportIndex;
+import utils.ConfigReader;
 import utils.DateUtils;
+import utils.DiagnosticsWriter;
+import utils.LocatorRanking;
+import utils.Log;
 
 public class FlightsPage extends BasePage {
+    private static final String DATE_TRIGGER_CASCADE = "flights.dateTrigger";
+    private static final String SEARCH_BUTTON_CASCADE = "flights.searchButton";
+
     private final List<By> fromInputCandidates = Arrays.asList(
             By.cssSelector("input[placeholder*='From']"),
             By.cssSelector("input[aria-label*='From']"),
@@ -138,11 +148,31 @@ public class FlightsPage extends BasePage {
                     + " div[aria-label*='Prev'], div[aria-label*='Previous'], div[aria-label*='Back'],"
                     + " button[data-testid*='prev'], div[data-testid*='prev'], button[data-testid*='back'], div[data-testid*='back']"
     );
+    private final long suggestionSettleMillis = ConfigReader.getIntProperty("suggestionSettleMillis", 300);
+    private final long suggestionTimeoutMillis = ConfigReader.getIntProperty("suggestionTimeoutSeconds", 10) * 1000L;
+    private final Duration calendarStepTimeout = Duration.ofMillis(ConfigReader.getIntProperty("calendarStepTimeoutMillis", 2000));
+
+    // Where the search form was last found: the top document's context, and the hosting iframe (null = default content)
+    private String frameContext;
+    private WebElement flightsFrame;
+    private String flightsFrameDocument;
 
     public FlightsPage(WebDriver driver) {
         super(driver);
     }
 
+    // The form may live in an iframe, so the frame is resolved (and cached for the form steps) before
+    // probing for it; both waits share the one 20 s budget
+    public boolean waitForSearchFormInteractive() {
+        long deadline = System.currentTimeMillis() + 20_000;
+        if (!awaitReady(Duration.ofSeconds(20), ReadinessProbe.documentInteractive())) {
+            return false;
+        }
+        ensureFlightsFrame();
+        return awaitReady(Duration.ofMillis(Math.max(0, deadline - System.currentTimeMillis())),
+                ReadinessProbe.anyInteractive(buildFromDisplayCandidates()));
+    }
+
     public void enterFromCity(String fromCity) {
         dismissCommonOverlays();
         ensureFlightsFrame();
@@ -183,16 +213,16 @@ public class FlightsPage extends BasePage {
             throw new RuntimeException("Departure date trigger not found on the page");
         }
         
-        System.out.println("Attempting to select departure date: " + DateUtils.toIsoDate(targetDate));
+        Log.info("Attempting to select departure date: " + DateUtils.toIsoDate(targetDate));
         safeClick(trigger);
         waitForCalendarReady();
         
         if (!selectDateFromCalendar(targetDate)) {
-            System.out.println("Calendar selection failed, trying fallback methods");
+            Log.warn("Calendar selection failed, trying fallback methods");
             String isoDate = DateUtils.toIsoDate(targetDate);
             if ("input".equalsIgnoreCase(trigger.getTagName())) {
                 setInputValue(trigger, isoDate);
-                System.out.println("Departure date set via input field: " + isoDate);
+                Log.info("Departure date set via input field: " + isoDate);
             } else {
                 // Try JavaScript approach
                 try {
@@ -202,9 +232,9 @@ public class FlightsPage extends BasePage {
                         "arguments[0].dispatchEvent(new Event('change', {bubbles:true}));",
                         trigger, isoDate
                     );
-                    System.out.println("Departure date set via JavaScript: " + isoDate);
+                    Log.info("Departure date set via JavaScript: " + isoDate);
                 } catch (Exception e) {
-                    System.out.println("JavaScript fallback also failed: " + e.getMessage());
+                    Log.warn("JavaScript fallback also failed: " + e.getMessage());
                 }
             }
         }
@@ -222,19 +252,18 @@ public class FlightsPage extends BasePage {
 
     public void clickSearch() {
         ensureFlightsFrame();
-        for (By locator : searchButtonCandidates) {
-            List<WebElement> buttons = driver.findElements(locator);
-            for (WebElement button : buttons) {
-                try {
-                    if (button.isDisplayed() && button.isEnabled()) {
-                        safeClick(button);
-                        return;
-                    }
-                } catch (Exception ignored) {
-                }
-            }
-        }
-        throw new RuntimeException("Search button not found on Ixigo flights page");
+        List<By> ordered = LocatorRanking.order(SEARCH_BUTTON_CASCADE, searchButtonCandidates);
+        long start = System.nanoTime();
+        VisibleMatch match = probeFirstVisible(ordered, true);
+        if (match == null) {
+            throw new RuntimeException("Search button not found on Ixigo flights page");
+        }
+        // The probe has no per-locator timing, so the misses carry no latency sample
+        for (By miss : ordered.subList(0, match.index)) {
+            LocatorRanking.recordMiss(SEARCH_BUTTON_CASCADE, miss);
+        }
+        LocatorRanking.recordHit(SEARCH_BUTTON_CASCADE, match.locator, System.nanoTime() - start);
+        safeClick(match.element);
     }
 
     public void syncSearchBarWithUrl(String fromCity, String toCity, LocalDate targetDate) {
@@ -252,16 +281,36 @@ public class FlightsPage extends BasePage {
         setDisplayTextIfPossible(departureField, DateUtils.formatForAriaLabel(targetDate));
     }
 
+    // The form-fill steps all call this; the frame search runs once per document instead of once per step
     private void ensureFlightsFrame() {
         driver.switchTo().defaultContent();
-        System.out.println("Ensuring flights frame, URL: " + driver.getCurrentUrl());
-        boolean defaultHasInputs = hasVisibleElement(fromInputCandidates) || hasVisibleElement(toInputCandidates)
-                || hasVisibleElement(fromFieldCandidates) || hasVisibleElement(toFieldCandidates);
+        String context = documentContext();
+        if (context != null && context.equals(frameContext)) {
+            if (flightsFrame == null) {
+                return;
+            }
+            try {
+                driver.switchTo().frame(flightsFrame);
+                if (flightsFrameDocument.equals(documentContext())) {
+                    return;
+                }
+            } catch (WebDriverException e) {
+                // Frame element was replaced; search again
+            }
+            driver.switchTo().defaultContent();
+        }
+        frameContext = null;
+        flightsFrame = null;
+        Log.debug(() -> "Ensuring flights frame, URL: " + driver.getCurrentUrl());
+        boolean defaultHasInputs = hasVisibleElement(fromInputCandidates, toInputCandidates,
+                fromFieldCandidates, toFieldCandidates);
         if (defaultHasInputs) {
+            frameContext = context;
             return;
         }
         List<WebElement> frames = driver.findElements(By.tagName("iframe"));
-        System.out.println("Frames detected: " + frames.size());
+        int initialFrames = frames.size();
+        Log.debug(() -> "Frames detected: " + initialFrames);
         if (frames.isEmpty()) {
             try {
                 WebDriverWait frameWait = new WebDriverWait(driver, Duration.ofSeconds(25));
@@ -269,8 +318,11 @@ public class FlightsPage extends BasePage {
                     List<WebElement> found = webDriver.findElements(By.tagName("iframe"));
                     return found.isEmpty() ? null : found;
                 });
-                System.out.println("Frames detected after wait: " + frames.size());
+                int foundFrames = frames.size();
+                Log.debug(() -> "Frames detected after wait: " + foundFrames);
             } catch (TimeoutException ignored) {
+                // Remember the miss too, so the remaining form steps do not each wait for frames again
+                frameContext = context;
                 return;
             }
         }
@@ -287,10 +339,16 @@ public class FlightsPage extends BasePage {
                     }
                 }
                 driver.switchTo().frame(frame);
-                System.out.println("Checking iframe[" + index + "] src=" + src);
-                if (hasVisibleElement(fromInputCandidates) || hasVisibleElement(toInputCandidates)
-                        || hasVisibleElement(fromFieldCandidates) || hasVisibleElement(toFieldCandidates)) {
-                    System.out.println("Switched to flights iframe");
+                int frameIndex = index;
+                Log.debug(() -> "Checking iframe[" + frameIndex + "] src=" + src);
+                if (hasVisibleElement(fromInputCandidates, toInputCandidates, fromFieldCandidates, toFieldCandidates)) {
+                    Log.info("Switched to flights iframe");
+                    String frameDocument = documentContext();
+                    if (frameDocument != null) {
+                        frameContext = context;
+                        flightsFrame = frame;
+                        flightsFrameDocument = frameDocument;
+                    }
                     return;
                 }
                 logInputDiagnostics();
@@ -299,8 +357,22 @@ public class FlightsPage extends BasePage {
             index++;
         }
         driver.switchTo().defaultContent();
-        if (defaultHasInputs) {
-            System.out.println("Using default content for flights search");
+        // No iframe hosts the form: cache the default-content fallback until the document changes
+        frameContext = context;
+        Log.info("No iframe hosts the flights form; using default content");
+    }
+
+    // URL plus a token stored on the current document's window: a reload or navigation yields a new
+    // window and so a new token, while SPA route changes show up in the URL
+    private String documentContext() {
+        try {
+            Object context = ((JavascriptExecutor) driver).executeScript(
+                    "if (!window.__flightsDocumentId) {"
+                            + " window.__flightsDocumentId = Date.now().toString(36) + Math.random().toString(36).slice(2); }"
+                            + " return location.href + '#' + window.__flightsDocumentId;");
+            return context == null ? null : context.toString();
+        } catch (WebDriverException e) {
+            return null;
         }
     }
 
@@ -323,7 +395,7 @@ public class FlightsPage extends BasePage {
     }
 
     private boolean enterCityUsingTrigger(List<By> triggerCandidates, String city, String label) {
-        WebElement trigger = findFirstVisibleOrNull(triggerCandidates, Duration.ofSeconds(6));
+        WebElement trigger = findFirstVisibleOrNull("flights.cityTrigger." + label, triggerCandidates, Duration.ofSeconds(6));
         if (trigger == null) {
             return false;
         }
@@ -339,7 +411,7 @@ public class FlightsPage extends BasePage {
             selectSuggestion(city, activeInput);
             return true;
         }
-        WebElement searchInput = findFirstVisibleOrNull(citySearchInputCandidates, Duration.ofSeconds(8));
+        WebElement searchInput = findFirstVisibleOrNull("flights.citySearchInput", citySearchInputCandidates, Duration.ofSeconds(8));
         if (searchInput == null) {
             searchInput = findBestCityInput(label, buildKeywords(label));
             if (searchInput == null) {
@@ -351,178 +423,167 @@ public class FlightsPage extends BasePage {
         return true;
     }
 
-    private boolean hasVisibleElement(List<By> locators) {
-        for (By locator : locators) {
-            List<WebElement> elements = driver.findElements(locator);
-            for (WebElement element : elements) {
-                try {
-                    if (element.isDisplayed()) {
-                        return true;
-                    }
-                } catch (Exception ignored) {
-                }
-            }
+    // All groups go to the page as one cascade, so checking several candidate lists is one round trip
+    @SafeVarargs
+    private boolean hasVisibleElement(List<By>... groups) {
+        List<By> locators = new ArrayList<>();
+        for (List<By> group : groups) {
+            locators.addAll(group);
         }
-        return false;
+        return probeFirstVisible(locators) != null;
     }
 
+    // Event-driven: one async script waits for the typeahead and picks the option, so no sleeps and no page-wide scans.
+    // The airport index supplies the city's other names and code, and vets a fallback pick from the text already returned.
     private void selectSuggestion(String city, WebElement input) {
-        try {
-            // Reduced wait time for faster execution
-            try {
-                Thread.sleep(500); // Reduced from 1000ms to 500ms
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+        AirportIndex.Airport airport = AirportIndex.shared().resolve(city);
+        Map<?, ?> result = awaitSuggestion(city, airport, input);
+        if (result != null && result.get("option") instanceof WebElement) {
+            String text = String.valueOf(result.get("text")).replace('\n', ' ');
+            if (Boolean.TRUE.equals(result.get("matched"))) {
+                Log.info("Found match for " + city + ": " + text);
+            } else if (airport != null && !AirportIndex.shared().describes(text, airport)) {
+                Log.warn("No suggestion names " + airport + " for " + city + "; first option is " + text + ", selecting it anyway");
+            } else {
+                Log.info("No exact match found for " + city + ", selecting first option: " + text);
             }
-            
-            // First try to find suggestions with multiple strategies
-            List<WebElement> options = waitForSuggestions();
-            if (options.isEmpty()) {
-                // Try alternative suggestion locators
-                List<By> altSuggestionLocators = Arrays.asList(
-                    By.cssSelector("ul[role='listbox'] li"),
-                    By.cssSelector("div[role='option']"),
-                    By.cssSelector(".suggestion-item"),
-                    By.cssSelector(".autocomplete-item"),
-                    By.cssSelector("[data-testid*='suggestion']"),
-                    By.xpath("//li[contains(@class,'suggestion') or contains(@class,'option') or contains(@class,'item')]")
-                );
-                
-                for (By locator : altSuggestionLocators) {
-                    options = driver.findElements(locator);
-                    if (!options.isEmpty()) {
-                        System.out.println("Found suggestions using alternative locator: " + locator);
-                        break;
-                    }
-                }
+            Log.debug(() -> "Suggestion picked from " + result.get("options") + " option(s) in " + result.get("elapsed") + " ms");
+            safeClick((WebElement) result.get("option"));
+            return;
+        }
+        Log.warn("No suggestions visible for " + city + ", selecting with the keyboard");
+        try {
+            input.sendKeys(Keys.ARROW_DOWN, Keys.ENTER);
+        } catch (WebDriverException e) {
+            Log.warn("Keyboard suggestion selection failed for " + city + ": " + e.getMessage());
+        }
+    }
+
+    private Map<?, ?> awaitSuggestion(String city, AirportIndex.Airport airport, WebElement input) {
+        List<String> names = new ArrayList<>();
+        names.add(city);
+        if (airport != null) {
+            names.addAll(airport.names());
+        }
+        Duration previousScriptTimeout = driver.manage().timeouts().getScriptTimeout();
+        try {
+            driver.manage().timeouts().scriptTimeout(Duration.ofMillis(suggestionTimeoutMillis + 5000));
+            Object raw = ((JavascriptExecutor) driver).executeAsyncScript(
+                    loadScript("js/locator-helpers.js", "js/await-suggestion.js"),
+                    input, toScriptLocators(Arrays.asList(suggestionOptions)), names,
+                    airport == null ? null : airport.getCode(), suggestionSettleMillis, suggestionTimeoutMillis);
+            return raw instanceof Map ? (Map<?, ?>) raw : null;
+        } catch (WebDriverException e) {
+            Log.warn("Suggestion wait failed for " + city + ": " + e.getMessage());
+            return null;
+        } finally {
+            driver.manage().timeouts().scriptTimeout(previousScriptTimeout);
+        }
+    }
+
+    private boolean selectDateFromCalendar(LocalDate date) {
+        String iso = DateUtils.toIsoDate(date);
+        String compact = DateUtils.formatAsCompactDate(date);
+        Boolean onTargetMonth = navigateToMonth(YearMonth.from(date));
+        if (onTargetMonth == null) {
+            // No readable month headers, so the offset is unknown: page through and probe each month
+            return stepThroughMonths(date, iso, compact);
+        }
+        if (onTargetMonth) {
+            WebElement cell = findDateCell(date, iso, compact);
+            if (cell != null && clickDateElement(cell, date)) {
+                return true;
             }
-            
-            WebElement match = null;
-            String cityLower = city.toLowerCase(Locale.ENGLISH);
-            
-            // Look for exact or partial match
-            for (WebElement option : options) {
-                try {
-                    String text = option.getText().trim().toLowerCase(Locale.ENGLISH);
-                    if (text.contains(cityLower) || cityLower.contains(text)) {
-                        match = option;
-                        System.out.println("Found match for " + city + ": " + text);
-                        break;
-                    }
-                } catch (Exception e) {
-                    // Continue trying other options
-                }
+            // Cells without date attributes fall back to the day number, inside the target month's block only
+            if (clickDayInMonth(date)) {
+                return true;
             }
-            
-            // If no match found, select first available option
-            if (match == null && !options.isEmpty()) {
-                match = options.get(0);
-                System.out.println("No exact match found for " + city + ", selecting first option: " + match.getText());
+        }
+        logCalendarDiagnostics(date);
+        return false;
+    }
+
+    // Reads the month headers once, pages straight to the target and re-reads only to confirm each
+    // re-render. Returns null when no header can be read, else whether the target month is showing.
+    private Boolean navigateToMonth(YearMonth target) {
+        List<YearMonth> visible = readVisibleMonths();
+        if (visible.isEmpty()) {
+            return null;
+        }
+        int offset = DateUtils.monthOffset(visible, target);
+        int budget = Math.abs(offset) + 1;
+        final List<YearMonth> initial = visible;
+        final int initialOffset = offset;
+        Log.debug(() -> "Calendar shows " + initial + "; " + target + " is " + initialOffset + " month(s) away");
+        while (offset != 0 && budget-- > 0) {
+            if (!(offset > 0 ? clickNextMonth() : clickPrevMonth())) {
+                Log.warn("Calendar " + (offset > 0 ? "next" : "previous") + " button not available at " + visible);
+                return false;
             }
-            
-            if (match != null) {
-                safeClick(match);
-                // Reduced wait time
-                try {
-                    Thread.sleep(200); // Reduced from 500ms to 200ms
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-                return;
+            visible = awaitMonthsChange(visible);
+            if (visible.isEmpty()) {
+                return false;
             }
-        } catch (TimeoutException ignored) {
-            System.out.println("No suggestions visible for " + city + ", trying alternative approaches");
-            
-            // Try multiple alternative approaches
-            try {
-                // Approach 1: Press Arrow Down then Enter
-                input.sendKeys(Keys.ARROW_DOWN);
-                Thread.sleep(100); // Reduced from 200ms to 100ms
-                input.sendKeys(Keys.ENTER);
-                return;
-            } catch (Exception e1) {
-                try {
-                    // Approach 2: Press Tab then Enter
-                    input.sendKeys(Keys.TAB);
-                    Thread.sleep(100); // Reduced from 200ms to 100ms
-                    input.sendKeys(Keys.ENTER);
-                    return;
-                } catch (Exception e2) {
-                    try {
-                        // Approach 3: Just Enter and hope for the best
-                        input.sendKeys(Keys.ENTER);
-                        return;
-                    } catch (Exception e3) {
-                        System.out.println("All suggestion selection methods failed for " + city);
+            // Recomputed each step, so calendars that page two months at a time are handled too
+            offset = DateUtils.monthOffset(visible, target);
+        }
+        return offset == 0;
+    }
+
+    private List<YearMonth> readVisibleMonths() {
+        return new ArrayList<>(readMonthHeaders().keySet());
+    }
+
+    // Header element per visible month, first occurrence wins
+    private Map<YearMonth, WebElement> readMonthHeaders() {
+        Map<YearMonth, WebElement> headers = new LinkedHashMap<>();
+        try {
+            Object raw = ((JavascriptExecutor) driver).executeScript(loadScript("js/locator-helpers.js", "js/calendar-months.js"));
+            if (raw instanceof List) {
+                for (Object entry : (List<?>) raw) {
+                    Map<?, ?> header = (Map<?, ?>) entry;
+                    YearMonth month = DateUtils.parseMonthHeader(String.valueOf(header.get("text")));
+                    if (month != null && header.get("element") instanceof WebElement) {
+                        headers.putIfAbsent(month, (WebElement) header.get("element"));
                     }
                 }
             }
+        } catch (WebDriverException e) {
+            Log.warn("Calendar month headers not readable: " + e.getMessage());
         }
-        
-        // Final fallback - press Arrow Down and Enter
+        return headers;
+    }
+
+    // Scoped to the target month's own block, so with two months showing the same day in the other one is never clicked
+    private boolean clickDayInMonth(LocalDate date) {
+        WebElement header = readMonthHeaders().get(YearMonth.from(date));
+        if (header == null) {
+            return false;
+        }
+        WebElement container = findMonthContainer(header, date.getDayOfMonth());
+        return container != null && clickDayInContainer(container, date);
+    }
+
+    private List<YearMonth> awaitMonthsChange(List<YearMonth> before) {
         try {
-            input.sendKeys(Keys.ARROW_DOWN);
-            try {
-                Thread.sleep(100); // Reduced from 200ms to 100ms
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-            input.sendKeys(Keys.ENTER);
-        } catch (Exception ignored) {
+            WebDriverWait stepWait = new WebDriverWait(driver, calendarStepTimeout, Duration.ofMillis(50));
+            return stepWait.until(webDriver -> {
+                List<YearMonth> now = readVisibleMonths();
+                return !now.isEmpty() && !now.equals(before) ? now : null;
+            });
+        } catch (TimeoutException e) {
+            Log.warn("Calendar did not re-render within " + calendarStepTimeout.toMillis() + " ms");
+            return readVisibleMonths();
         }
     }
 
-    private List<WebElement> waitForSuggestions() {
-        WebDriverWait suggestionWait = new WebDriverWait(driver, Duration.ofSeconds(10));
-        return suggestionWait.until(webDriver -> {
-            List<WebElement> options = webDriver.findElements(suggestionOptions);
-            
-            // Debug: Print what we found
-            if (!options.isEmpty()) {
-                System.out.println("Primary suggestion locators found " + options.size() + " options");
-                
-                // Try even more comprehensive locators
-                List<By> emergencyLocators = Arrays.asList(
-                    By.cssSelector("*[role='option']"),
-                    By.cssSelector("*[role='listitem']"),
-                    By.cssSelector("li"),
-                    By.cssSelector("div[class*='item']"),
-                    By.cssSelector("a[class*='suggestion']"),
-                    By.cssSelector("span[class*='suggestion']"),
-                    By.xpath("//*[contains(@class,'suggestion') or contains(@class,'option') or contains(@class,'item') or contains(@class,'result')]"),
-                    By.xpath("//li | //div | //span | //a"),
-                    By.cssSelector(".ui-autocomplete-item"),
-                    By.cssSelector(".tt-suggestion"),
-                    By.cssSelector(".select2-results__option")
-                );
-                
-                for (By locator : emergencyLocators) {
-                    List<WebElement> emergencyOptions = webDriver.findElements(locator);
-                    if (!emergencyOptions.isEmpty()) {
-                        System.out.println("Emergency locator found " + emergencyOptions.size() + " options: " + locator);
-                        return emergencyOptions;
-                    }
-                }
-            }
-            
-            for (WebElement option : options) {
-                try {
-                    if (option.isDisplayed()) {
-                        System.out.println("Found visible suggestion: " + option.getText());
-                        return options;
-                    }
-                } catch (Exception e) {
-                    // Continue checking other options
-                }
-            }
-            return null;
-        });
+    // One script call over the date-attribute locators; no text matching on the day number
+    private WebElement findDateCell(LocalDate date, String iso, String compact) {
+        VisibleMatch match = probeFirstVisible(buildDateCellLocators(date, iso, compact));
+        return match == null ? null : match.element;
     }
 
-    private boolean selectDateFromCalendar(LocalDate date) {
-        String iso = DateUtils.toIsoDate(date);
-        String compact = DateUtils.formatAsCompactDate(date);
-        
+    private boolean stepThroughMonths(LocalDate date, String iso, String compact) {
         // Try current month first
         if (tryClickDate(date, iso, compact)) {
             return true;
@@ -566,25 +627,9 @@ public class FlightsPage extends BasePage {
         String monthFull = date.getMonth().getDisplayName(TextStyle.FULL, Locale.ENGLISH);
         String monthNumber = String.format("%02d", date.getMonthValue());
         String year = String.valueOf(date.getYear());
-        List<By> locators = new ArrayList<>();
+        List<By> locators = buildDateCellLocators(date, iso, compact);
         
-        // Standard date attributes
-        locators.add(By.cssSelector("[data-date='" + iso + "']"));
-        locators.add(By.cssSelector("[data-date='" + compact + "']"));
-        locators.add(By.cssSelector("[data-testid*='" + iso + "']"));
-        locators.add(By.cssSelector("[data-testid*='" + compact + "']"));
-        locators.add(By.cssSelector("[data-value='" + iso + "']"));
-        locators.add(By.cssSelector("[data-value='" + compact + "']"));
-        
-        // Day-specific attributes
-        locators.add(By.cssSelector("[data-day='" + day + "'][data-month='" + monthNumber + "']"));
-        locators.add(By.cssSelector("[data-day='" + day + "'][data-year='" + year + "']"));
-        locators.add(By.cssSelector("[data-day='" + day + "'][data-month*='" + monthShort + "']"));
-        locators.add(By.cssSelector("[data-day='" + day + "'][data-month*='" + monthFull + "']"));
-        
-        // Aria label candidates
         for (String label : DateUtils.getAriaLabelCandidates(date)) {
-            locators.add(By.cssSelector("[aria-label='" + label + "']"));
             locators.add(By.xpath("//*[contains(@aria-label,'" + label + "')]"));
         }
         
@@ -607,20 +652,34 @@ public class FlightsPage extends BasePage {
         return locators;
     }
 
-    private boolean clickFirstVisible(List<By> locators) {
-        for (By locator : locators) {
-            List<WebElement> elements = driver.findElements(locator);
-            for (WebElement element : elements) {
-                try {
-                    if (element.isDisplayed() && element.isEnabled()) {
-                        safeClick(element);
-                        return true;
-                    }
-                } catch (Exception ignored) {
-                }
-            }
+    // CSS-only attribute matches, probed in page by findDateCell
+    private List<By> buildDateCellLocators(LocalDate date, String iso, String compact) {
+        String day = String.valueOf(date.getDayOfMonth());
+        String monthShort = date.getMonth().getDisplayName(TextStyle.SHORT, Locale.ENGLISH);
+        String monthFull = date.getMonth().getDisplayName(TextStyle.FULL, Locale.ENGLISH);
+        String monthNumber = String.format("%02d", date.getMonthValue());
+        String year = String.valueOf(date.getYear());
+        List<By> locators = new ArrayList<>();
+        
+        // Standard date attributes
+        locators.add(By.cssSelector("[data-date='" + iso + "']"));
+        locators.add(By.cssSelector("[data-date='" + compact + "']"));
+        locators.add(By.cssSelector("[data-testid*='" + iso + "']"));
+        locators.add(By.cssSelector("[data-testid*='" + compact + "']"));
+        locators.add(By.cssSelector("[data-value='" + iso + "']"));
+        locators.add(By.cssSelector("[data-value='" + compact + "']"));
+        
+        // Day-specific attributes
+        locators.add(By.cssSelector("[data-day='" + day + "'][data-month='" + monthNumber + "']"));
+        locators.add(By.cssSelector("[data-day='" + day + "'][data-year='" + year + "']"));
+        locators.add(By.cssSelector("[data-day='" + day + "'][data-month*='" + monthShort + "']"));
+        locators.add(By.cssSelector("[data-day='" + day + "'][data-month*='" + monthFull + "']"));
+        
+        // Aria label candidates
+        for (String label : DateUtils.getAriaLabelCandidates(date)) {
+            locators.add(By.cssSelector("[aria-label='" + label + "']"));
         }
-        return false;
+        return locators;
     }
 
     private boolean clickNextMonth() {
@@ -726,13 +785,14 @@ public class FlightsPage extends BasePage {
         return false;
     }
 
+    // Relative paths: against a month container they stay inside it; against the driver they search the document
     private List<By> buildDayLocators(int day) {
         String value = String.valueOf(day);
         List<By> locators = new ArrayList<>();
-        locators.add(By.xpath("//button[normalize-space()='" + value + "' and not(@disabled) and not(contains(@class,'disabled'))]"));
-        locators.add(By.xpath("//div[normalize-space()='" + value + "' and not(contains(@class,'disabled'))]"));
-        locators.add(By.xpath("//span[normalize-space()='" + value + "' and not(contains(@class,'disabled'))]"));
-        locators.add(By.xpath("//*[normalize-space()='" + value + "' and not(contains(@class,'disabled'))]"));
+        locators.add(By.xpath(".//button[normalize-space()='" + value + "' and not(@disabled) and not(contains(@class,'disabled'))]"));
+        locators.add(By.xpath(".//div[normalize-space()='" + value + "' and not(contains(@class,'disabled'))]"));
+        locators.add(By.xpath(".//span[normalize-space()='" + value + "' and not(contains(@class,'disabled'))]"));
+        locators.add(By.xpath(".//*[normalize-space()='" + value + "' and not(contains(@class,'disabled'))]"));
         return locators;
     }
 
@@ -774,10 +834,10 @@ public class FlightsPage extends BasePage {
     private void logDepartureValue(LocalDate targetDate) {
         String value = readDepartureText();
         if (value == null || value.trim().isEmpty()) {
-            System.out.println("Departure field value not readable after selection: " + DateUtils.toIsoDate(targetDate));
+            Log.warn("Departure field value not readable after selection: " + DateUtils.toIsoDate(targetDate));
             return;
         }
-        System.out.println("Departure field shows: " + value);
+        Log.info("Departure field shows: " + value);
     }
 
     private boolean clickDateCandidates(List<By> locators, LocalDate targetDate) {
@@ -850,7 +910,7 @@ public class FlightsPage extends BasePage {
     }
 
     private String readDepartureText() {
-        for (By locator : dateTriggerCandidates) {
+        for (By locator : LocatorRanking.order(DATE_TRIGGER_CASCADE, dateTriggerCandidates)) {
             List<WebElement> elements = driver.findElements(locator);
             for (WebElement element : elements) {
                 try {
@@ -895,7 +955,10 @@ public class FlightsPage extends BasePage {
             String monthShort = date.getMonth().getDisplayName(TextStyle.SHORT, Locale.ENGLISH);
             String monthFull = date.getMonth().getDisplayName(TextStyle.FULL, Locale.ENGLISH);
             String year = String.valueOf(date.getYear());
-            List<WebElement> candidates = driver.findElements(By.xpath("//*[contains(@aria-label,'" + day + "') or normalize-space()='" + day + "']"));
+            // The candidate dump costs a WebDriver call per attribute, so it only runs when debug lines are printed
+            List<WebElement> candidates = Log.isPrinted(Log.Level.DEBUG)
+                    ? driver.findElements(By.xpath("//*[contains(@aria-label,'" + day + "') or normalize-space()='" + day + "']"))
+                    : new ArrayList<>();
             int printed = 0;
             for (WebElement element : candidates) {
                 try {
@@ -906,7 +969,7 @@ public class FlightsPage extends BasePage {
                     String dataYear = element.getAttribute("data-year");
                     String text = element.getText();
                     if ((aria != null && !aria.isEmpty()) || (dataDate != null && !dataDate.isEmpty()) || (text != null && !text.isEmpty())) {
-                        System.out.println("Calendar candidate: text=" + text + ", aria=" + aria + ", data-date=" + dataDate
+                        Log.debug(() -> "Calendar candidate: text=" + text + ", aria=" + aria + ", data-date=" + dataDate
                                 + ", data-day=" + dataDay + ", data-month=" + dataMonth + ", data-year=" + dataYear);
                         printed++;
                     }
@@ -916,10 +979,7 @@ public class FlightsPage extends BasePage {
                 } catch (Exception ignored) {
                 }
             }
-            String source = driver.getPageSource();
-            Files.createDirectories(Paths.get("target"));
-            Files.write(Paths.get("target", "ixigo-calendar-source.html"), source.getBytes(StandardCharsets.UTF_8));
-            System.out.println("Calendar page source saved to target/ixigo-calendar-source.html for " + monthFull + " " + year);
+            DiagnosticsWriter.capturePageSource(driver, "calendar " + monthFull + " " + year);
         } catch (Exception ignored) {
         }
     }
@@ -940,7 +1000,7 @@ public class FlightsPage extends BasePage {
     }
 
     private WebElement resolveCityInput(String label, List<By> fieldCandidates, List<By> inputCandidates, List<String> keywords) {
-        WebElement field = findFirstVisibleOrNull(fieldCandidates, Duration.ofSeconds(6));
+        WebElement field = findFirstVisibleOrNull("flights.cityField." + label, fieldCandidates, Duration.ofSeconds(6));
         if (field != null) {
             try {
                 // Use JavaScript to scroll the WebElement into view
@@ -955,7 +1015,7 @@ public class FlightsPage extends BasePage {
         }
         
         // Try input candidates with more comprehensive search
-        WebElement input = findFirstVisibleOrNull(inputCandidates, Duration.ofSeconds(6));
+        WebElement input = findFirstVisibleOrNull("flights.cityInput." + label, inputCandidates, Duration.ofSeconds(6));
         if (input == null) {
             // Try additional input locators
             List<By> additionalInputLocators = Arrays.asList(
@@ -974,7 +1034,7 @@ public class FlightsPage extends BasePage {
             for (By locator : additionalInputLocators) {
                 input = findFirstVisibleOrNull(Arrays.asList(locator), Duration.ofSeconds(2));
                 if (input != null) {
-                    System.out.println("Found " + label + " input using additional locator: " + locator);
+                    Log.debug(() -> "Found " + label + " input using additional locator: " + locator);
                     break;
                 }
             }
@@ -996,7 +1056,7 @@ public class FlightsPage extends BasePage {
                             (name != null && name.toLowerCase().contains(label.toLowerCase())) ||
                             (id != null && id.toLowerCase().contains(label.toLowerCase()))) {
                             input = inp;
-                            System.out.println("Found " + label + " input by attribute matching: " + 
+                            Log.debug(() -> "Found " + label + " input by attribute matching: " + 
                                 (placeholder != null ? "placeholder=" + placeholder : "") +
                                 (ariaLabel != null ? " aria-label=" + ariaLabel : "") +
                                 (name != null ? " name=" + name : "") +
@@ -1056,7 +1116,8 @@ public class FlightsPage extends BasePage {
             }
         }
         if (best != null) {
-            System.out.println("Selected " + label + " input with score " + bestScore);
+            int score = bestScore;
+            Log.debug(() -> "Selected " + label + " input with score " + score);
         }
         return best;
     }
@@ -1093,7 +1154,7 @@ public class FlightsPage extends BasePage {
     }
 
     private WebElement findDepartureTrigger() {
-        WebElement trigger = findFirstVisibleOrNull(dateTriggerCandidates, Duration.ofSeconds(6));
+        WebElement trigger = findFirstVisibleOrNull(DATE_TRIGGER_CASCADE, dateTriggerCandidates, Duration.ofSeconds(6));
         if (trigger != null) {
             return trigger;
         }
@@ -1148,44 +1209,39 @@ public class FlightsPage extends BasePage {
     }
 
     private WebElement findFirstVisible(List<By> locators, String name) {
-        WebDriverWait localWait = new WebDriverWait(driver, Duration.ofSeconds(20));
-        try {
-            return localWait.until(webDriver -> {
-                for (By locator : locators) {
-                    List<WebElement> elements = webDriver.findElements(locator);
-                    for (WebElement element : elements) {
-                        try {
-                            if (element.isDisplayed()) {
-                                return element;
-                            }
-                        } catch (Exception ignored) {
-                        }
-                    }
-                }
-                return null;
-            });
-        } catch (TimeoutException e) {
+        WebElement element = awaitFirstVisible(locators, Duration.ofSeconds(20));
+        if (element == null) {
             logInputDiagnostics();
-            throw new RuntimeException("Unable to locate " + name + " input on Ixigo", e);
+            throw new RuntimeException("Unable to locate " + name + " input on Ixigo");
         }
+        return element;
     }
 
     private WebElement findFirstVisibleOrNull(List<By> locators, Duration timeout) {
+        return findFirstVisibleOrNull(null, locators, timeout);
+    }
+
+    // With a cascade name the candidates are tried in learned order and the winning pass is recorded;
+    // each pass is a single in-page probe over the whole list
+    private WebElement findFirstVisibleOrNull(String cascade, List<By> locators, Duration timeout) {
+        if (cascade == null) {
+            return awaitFirstVisible(locators, timeout);
+        }
+        List<By> ordered = LocatorRanking.order(cascade, locators);
         try {
             WebDriverWait localWait = new WebDriverWait(driver, timeout);
             return localWait.until(webDriver -> {
-                for (By locator : locators) {
-                    List<WebElement> elements = webDriver.findElements(locator);
-                    for (WebElement element : elements) {
-                        try {
-                            if (element.isDisplayed()) {
-                                return element;
-                            }
-                        } catch (Exception ignored) {
-                        }
-                    }
+                long passStart = System.nanoTime();
+                VisibleMatch match = probeFirstVisible(ordered);
+                if (match == null) {
+                    return null;
                 }
-                return null;
+                // The probe has no per-locator timing, so the misses carry no latency sample
+                for (By miss : ordered.subList(0, match.index)) {
+                    LocatorRanking.recordMiss(cascade, miss);
+                }
+                LocatorRanking.recordHit(cascade, match.locator, System.nanoTime() - passStart);
+                return match.element;
             });
         } catch (TimeoutException e) {
             return null;
@@ -1206,7 +1262,7 @@ public class FlightsPage extends BasePage {
 
     private void logInputValue(String label, WebElement input) {
         try {
-            System.out.println(label + " value: " + input.getAttribute("value"));
+            Log.info(label + " value: " + input.getAttribute("value"));
         } catch (Exception ignored) {
         }
     }
@@ -1218,7 +1274,7 @@ public class FlightsPage extends BasePage {
         WebElement trigger = findFirstVisibleOrNull(displayCandidates, Duration.ofSeconds(5));
         if (trigger != null) {
             safeClick(trigger);
-            WebElement searchInput = findFirstVisibleOrNull(citySearchInputCandidates, Duration.ofSeconds(6));
+            WebElement searchInput = findFirstVisibleOrNull("flights.citySearchInput", citySearchInputCandidates, Duration.ofSeconds(6));
             if (searchInput != null) {
                 focusAndType(searchInput, city);
                 selectSuggestion(city, searchInput);
@@ -1266,8 +1322,15 @@ public class FlightsPage extends BasePage {
     }
 
     private void logInputDiagnostics() {
+        if (Log.isPrinted(Log.Level.DEBUG)) {
+            logInputCandidates();
+        }
+        DiagnosticsWriter.capturePageSource(driver, "input");
+    }
+
+    private void logInputCandidates() {
         List<WebElement> inputs = driver.findElements(By.tagName("input"));
-        System.out.println("Input elements found: " + inputs.size());
+        Log.debug(() -> "Input elements found: " + inputs.size());
         int printed = 0;
         for (WebElement input : inputs) {
             try {
@@ -1277,7 +1340,7 @@ public class FlightsPage extends BasePage {
                 String id = input.getAttribute("id");
                 String summary = "placeholder=" + placeholder + ", aria-label=" + aria
                         + ", name=" + name + ", id=" + id;
-                System.out.println("Input candidate: " + summary);
+                Log.debug(() -> "Input candidate: " + summary);
                 printed++;
                 if (printed >= 10) {
                     break;
@@ -1287,10 +1350,10 @@ public class FlightsPage extends BasePage {
         }
 
         List<WebElement> frames = driver.findElements(By.tagName("iframe"));
-        System.out.println("Iframes found: " + frames.size());
+        Log.debug(() -> "Iframes found: " + frames.size());
 
         List<WebElement> roleInputs = driver.findElements(By.cssSelector("[role='combobox'], [role='textbox'], [contenteditable='true']"));
-        System.out.println("Role-based input candidates: " + roleInputs.size());
+        Log.debug(() -> "Role-based input candidates: " + roleInputs.size());
         printed = 0;
         for (WebElement element : roleInputs) {
             try {
@@ -1298,7 +1361,7 @@ public class FlightsPage extends BasePage {
                 String testId = element.getAttribute("data-testid");
                 String aria = element.getAttribute("aria-label");
                 String tag = element.getTagName();
-                System.out.println("Role candidate: tag=" + tag + ", role=" + role + ", data-testid=" + testId + ", aria-label=" + aria);
+                Log.debug(() -> "Role candidate: tag=" + tag + ", role=" + role + ", data-testid=" + testId + ", aria-label=" + aria);
                 printed++;
                 if (printed >= 10) {
                     break;
@@ -1313,7 +1376,7 @@ public class FlightsPage extends BasePage {
             try {
                 String testId = element.getAttribute("data-testid");
                 if (testId != null && !testId.isEmpty()) {
-                    System.out.println("data-testid: " + testId);
+                    Log.debug(() -> "data-testid: " + testId);
                     printed++;
                 }
                 if (printed >= 10) {
@@ -1322,14 +1385,6 @@ public class FlightsPage extends BasePage {
             } catch (Exception ignored) {
             }
         }
-
-        try {
-            String source = driver.getPageSource();
-            Files.createDirectories(Paths.get("target"));
-            Files.write(Paths.get("target", "ixigo-page-source.html"), source.getBytes(StandardCharsets.UTF_8));
-            System.out.println("Page source saved to target/ixigo-page-source.html");
-        } catch (Exception ignored) {
-        }
     }
 
     private void setInputValue(WebElement element, String value) {
@@ -1,9 +1,14 @@
 package pages;
 
+import java.time.Duration;
+import java.util.Arrays;
+
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 
 import base.BasePage;
+import base.ReadinessProbe;
+import utils.Log;
 
 public class HomePage extends BasePage {
     private final By loginModalClose = By.cssSelector("span.commonModal__close");
@@ -16,6 +21,10 @@ public class HomePage extends BasePage {
         super(driver);
     }
 
+    public boolean waitForPageReady(String requestedUrl) {
+        return awaitReady(Duration.ofSeconds(30), ReadinessProbe.documentInteractive(requestedUrl));
+    }
+
     public void closeLoginIfPresent() {
         dismissCommonOverlays();
         if (isPresent(loginModalClose)) {
@@ -26,26 +35,10 @@ public class HomePage extends BasePage {
 
     public FlightsPage openFlightsSection() {
         closeLoginIfPresent();
-        boolean clicked = clickIfVisible(flightsTab)
-                || clickIfVisible(flightsTabAlt)
-                || clickIfVisible(flightsTabLegacy)
-                || clickIfVisible(flightsHome);
+        boolean clicked = clickFirstVisible(Arrays.asList(flightsTab, flightsTabAlt, flightsTabLegacy, flightsHome));
         if (!clicked) {
-            System.out.println("Flights tab not visible, continuing on current page");
+            Log.info("Flights tab not visible, continuing on current page");
         }
         return new FlightsPage(driver);
     }
-
-    private boolean clickIfVisible(By locator) {
-        for (org.openqa.selenium.WebElement element : driver.findElements(locator)) {
-            try {
-                if (element.isDisplayed()) {
-                    safeClick(element);
-                    return true;
-                }
-            } catch (Exception ignored) {
-            }
-        }
-        return false;
-    }
 }
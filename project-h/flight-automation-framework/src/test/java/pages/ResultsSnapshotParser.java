@@ -0,0 +1,155 @@
+package pages;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.openqa.selenium.By;
+
+import pages.SearchResultsPage.FlightInfo;
+import utils.HtmlDocument;
+import utils.HtmlDocument.Element;
+import utils.LocatorRanking;
+import utils.ParallelParser;
+
+// Runs the results-page card, airline, price and time extraction against one HTML snapshot
+// instead of live WebElements. Mirrors js/harvest-flight-cards.js: the first card locator with
+// visible matches wins, and each card becomes the same map the script harvester returns, so
+// SearchResultsPage.toFlightInfo does the final parsing. Cards are parsed through ParallelParser.
+// Only CSS locators can be evaluated offline; XPath candidates are skipped.
+public final class ResultsSnapshotParser {
+
+    private ResultsSnapshotParser() {
+    }
+
+    public static List<FlightInfo> parse(String html) {
+        return parseCards(findCards(HtmlDocument.parse(html)).elements);
+    }
+
+    static Cards findCards(HtmlDocument document) {
+        List<By> cardLocators = LocatorRanking.order(SearchResultsPage.CARD_CASCADE, SearchResultsPage.CARD_LOCATORS);
+        for (int l = 0; l < cardLocators.size(); l++) {
+            List<Element> matches = visible(document.root(), cardLocators.get(l));
+            if (!matches.isEmpty()) {
+                return new Cards(cardLocators.get(l), matches);
+            }
+        }
+        return new Cards(null, new ArrayList<>());
+    }
+
+    // Cards are independent once detached from the browser, so they can be split across cores
+    static List<FlightInfo> parseCards(List<Element> cards) {
+        return parseCards(cards, ParallelParser.worthSplitting(cards.size()));
+    }
+
+    static List<FlightInfo> parseCards(List<Element> cards, boolean parallel) {
+        List<By> priceLocators = LocatorRanking.order(SearchResultsPage.PRICE_CASCADE, SearchResultsPage.PRICE_IN_CARD_LOCATORS);
+        return ParallelParser.map(cards, card -> parseCard(card, priceLocators), parallel);
+    }
+
+    private static FlightInfo parseCard(Element card, List<By> priceLocators) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("airline", airlineOf(card));
+        values.put("priceText", priceTextOf(card, priceLocators));
+        values.put("text", card.text());
+        return SearchResultsPage.toFlightInfo(values);
+    }
+
+    // Reads a page-source dump, plain or gzipped as written by DiagnosticsWriter, and prints what it finds
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: ResultsSnapshotParser <page-source.html[.gz]>...");
+            return;
+        }
+        for (String arg : args) {
+            Path path = Paths.get(arg);
+            long start = System.nanoTime();
+            List<FlightInfo> flights = parse(read(path));
+            System.out.println(path + ": " + flights.size() + " flight(s) in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            for (FlightInfo flight : flights) {
+                System.out.println("  " + flight);
+            }
+        }
+    }
+
+    static String read(Path path) throws IOException {
+        try (InputStream input = path.toString().endsWith(".gz")
+                ? new GZIPInputStream(Files.newInputStream(path))
+                : Files.newInputStream(path)) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String priceTextOf(Element card, List<By> priceLocators) {
+        for (By locator : priceLocators) {
+            for (Element element : visible(card, locator)) {
+                String text = element.text();
+                if (hasDigit(text)) {
+                    return text;
+                }
+            }
+        }
+        return "";
+    }
+
+    private static String airlineOf(Element card) {
+        for (By locator : SearchResultsPage.AIRLINE_IN_CARD_LOCATORS) {
+            for (Element element : visible(card, locator)) {
+                String text = element.text();
+                if (!text.isEmpty()) {
+                    return text;
+                }
+                String alt = element.attr("alt").trim();
+                if (!alt.isEmpty()) {
+                    return alt;
+                }
+            }
+        }
+        return "";
+    }
+
+    private static List<Element> visible(Element root, By locator) {
+        List<Element> matches = new ArrayList<>();
+        if (!(locator instanceof By.Remotable)) {
+            return matches;
+        }
+        By.Remotable.Parameters parameters = ((By.Remotable) locator).getRemoteParameters();
+        if (!"css selector".equals(parameters.using())) {
+            return matches;
+        }
+        for (Element element : root.select(String.valueOf(parameters.value()))) {
+            if (!element.isHidden()) {
+                matches.add(element);
+            }
+        }
+        return matches;
+    }
+
+    private static boolean hasDigit(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.isDigit(text.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // The winning card locator and its visible matches, like firstVisibleMatches in locator-helpers.js
+    static final class Cards {
+        final By locator;
+        final List<Element> elements;
+
+        private Cards(By locator, List<Element> elements) {
+            this.locator = locator;
+            this.elements = elements;
+        }
+    }
+}
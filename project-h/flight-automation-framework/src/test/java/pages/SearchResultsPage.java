@@ -1,28 +1,42 @@
 package pages;
 
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.Function;
 
 import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
 
 import base.BasePage;
+import base.ReadinessProbe;
+import utils.CdpSession;
 import utils.ConfigReader;
+import utils.DiagnosticsWriter;
+import utils.FareTokenizer;
+import utils.HtmlDocument;
+import utils.LocatorRanking;
+import utils.Log;
+import utils.NetworkCapture;
+import utils.ParallelParser;
 
 public class SearchResultsPage extends BasePage {
-    private final List<By> flightCardLocators = Arrays.asList(
+    static final String CARD_CASCADE = "results.flightCard";
+    static final String PRICE_CASCADE = "results.priceInCard";
+
+    static final List<By> CARD_LOCATORS = Arrays.asList(
             By.cssSelector("div.shadow-card"),
             By.cssSelector("div[class*='shadow-card']"),
             By.cssSelector("[data-testid*='result']"),
@@ -46,7 +60,7 @@ public class SearchResultsPage extends BasePage {
             By.xpath("//div[contains(@class,'itinerary') or contains(@class,'flight-item') or contains(@class,'search-result') or contains(@class,'flight-result')]")
     );
 
-    private final List<By> priceWithinCardCandidates = Arrays.asList(
+    static final List<By> PRICE_IN_CARD_LOCATORS = Arrays.asList(
             By.cssSelector("[data-testid*='price']"),
             By.cssSelector("[data-testid*='fare']"),
             By.cssSelector("[class*='price']"),
@@ -54,6 +68,13 @@ public class SearchResultsPage extends BasePage {
             By.xpath(".//*[contains(text(),'Rs') or contains(text(),'INR')]")
     );
 
+    static final List<By> AIRLINE_IN_CARD_LOCATORS = Arrays.asList(
+            By.cssSelector("[data-testid*='airline']"),
+            By.cssSelector("[class*='airline']"),
+            By.cssSelector("[class*='carrier']"),
+            By.cssSelector("img[alt]")
+    );
+
     private final List<By> pricePageCandidates = Arrays.asList(
             By.cssSelector("[data-testid*='price']"),
             By.cssSelector("[data-testid*='fare']"),
@@ -79,11 +100,27 @@ public class SearchResultsPage extends BasePage {
             + " or contains(translate(.,'ABCDEFGHIJKLMNOPQRSTUVWXYZ','abcdefghijklmnopqrstuvwxyz'),'verify you are')"
             + " or contains(translate(.,'ABCDEFGHIJKLMNOPQRSTUVWXYZ','abcdefghijklmnopqrstuvwxyz'),'captcha')]");
 
-    private final Pattern timePattern = Pattern.compile("\\b\\d{1,2}:\\d{2}(\\s?[APMapm]{2})?\\b");
-    private final Pattern priceNumberPattern = Pattern.compile("\\d{3,}");
+    private final String extractionMode;
+    private final long sortQuietMillis = ConfigReader.getIntProperty("sortQuietMillis", 750);
+    private final long sortTimeoutMillis = ConfigReader.getIntProperty("sortTimeoutSeconds", 30) * 1000L;
+    private List<Integer> lastSettledPrices = new ArrayList<>();
+    private final boolean harvestScroll = ConfigReader.getBooleanProperty("harvestScroll", false);
+    private final int harvestMaxCards = ConfigReader.getIntProperty("harvestMaxCards", 500);
+    private final int harvestMaxSteps = ConfigReader.getIntProperty("harvestMaxSteps", 60);
+    private List<FlightInfo> harvestCache;
+    private String harvestCacheUrl;
+    private int lastHarvestCardCount;
 
     public SearchResultsPage(WebDriver driver) {
         super(driver);
+        String mode = ConfigReader.getProperty("extractionMode");
+        this.extractionMode = mode == null || mode.trim().isEmpty() ? "dom" : mode.trim().toLowerCase();
+    }
+
+    public boolean waitForResultsContainerAttached() {
+        List<By> candidates = new ArrayList<>(CARD_LOCATORS);
+        candidates.add(noResultsLocator);
+        return awaitReady(Duration.ofSeconds(30), ReadinessProbe.anyAttached(candidates));
     }
 
     public void waitForResultsToLoad() {
@@ -94,283 +131,485 @@ public class SearchResultsPage extends BasePage {
             });
         } catch (TimeoutException e) {
             logResultsDiagnostics();
-            System.out.println("Results loading timeout, proceeding with available data");
+            Log.warn("Results loading timeout, proceeding with available data");
         }
     }
 
     public int getResultsCount() {
         waitForResultsToLoad();
+        // Same gate as getAllFlightInfo, so the count comes from the extractor that produces the results
+        if (harvestScroll && "dom".equals(extractionMode)) {
+            harvestByScrolling();
+            if (lastHarvestCardCount > 0) {
+                return lastHarvestCardCount;
+            }
+        }
         return getFlightCards().size();
     }
 
     public List<FlightInfo> getAllFlightInfo() {
         waitForResultsToLoad();
-        List<WebElement> cards = getFlightCards();
-        List<FlightInfo> results = new ArrayList<>();
+        if ("network".equals(extractionMode)) {
+            List<FlightInfo> captured = getFlightInfoFromNetwork();
+            if (!captured.isEmpty()) {
+                return captured;
+            }
+            Log.info("No flights in captured search API responses, falling back to DOM scraping");
+        }
+        // The scrolling harvester is the dom-mode extractor; script and snapshot modes run their own
+        if (harvestScroll && "dom".equals(extractionMode)) {
+            List<FlightInfo> harvested = harvestByScrolling();
+            if (!harvested.isEmpty()) {
+                return harvested;
+            }
+            Log.info("Scrolling harvester found no cards, falling back to the rendered cards");
+        }
+        if ("script".equals(extractionMode)) {
+            List<FlightInfo> harvested = harvestFlightInfo();
+            if (!harvested.isEmpty()) {
+                return harvested;
+            }
+            Log.info("Script harvester found no cards, falling back to per-element scraping");
+        }
+        if ("snapshot".equals(extractionMode)) {
+            List<FlightInfo> parsed = getFlightInfoFromSnapshot();
+            if (!parsed.isEmpty()) {
+                return parsed;
+            }
+            Log.info("No cards in the DOM snapshot, falling back to per-element scraping");
+        }
+        List<FlightInfo> results = readCards(this::parseCard);
+        if (results.isEmpty()) {
+            Log.warn("No flight info extracted from cards");
+        }
+        return results;
+    }
 
-        for (int i = 0; i < cards.size(); i++) {
-            WebElement card = null;
+    public List<FlightInfo> getFlightInfoFromNetwork() {
+        NetworkCapture capture = NetworkCapture.forDriver(driver);
+        if (capture == null) {
+            return Collections.emptyList();
+        }
+        long start = System.currentTimeMillis();
+        for (NetworkCapture.CapturedResponse response : capture.awaitResponses(Duration.ofSeconds(5))) {
+            List<FlightInfo> flights = FlightPayloadParser.parse(response.getBody());
+            if (!flights.isEmpty()) {
+                Log.info("Extracted " + flights.size() + " flights from " + response.getUrl()
+                        + " in " + (System.currentTimeMillis() - start) + " ms");
+                return flights;
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    // One executeScript walks every card in the browser; only plain maps cross the wire
+    public List<FlightInfo> harvestFlightInfo() {
+        long start = System.currentTimeMillis();
+        List<By> cardLocators = LocatorRanking.order(CARD_CASCADE, CARD_LOCATORS);
+        Object raw;
+        try {
+            raw = ((JavascriptExecutor) driver).executeScript(loadScript("js/locator-helpers.js", "js/harvest-flight-cards.js"),
+                    toScriptLocators(cardLocators),
+                    toScriptLocators(LocatorRanking.order(PRICE_CASCADE, PRICE_IN_CARD_LOCATORS)),
+                    toScriptLocators(AIRLINE_IN_CARD_LOCATORS));
+        } catch (WebDriverException e) {
+            Log.warn("Card harvester script failed: " + e.getMessage());
+            return Collections.emptyList();
+        }
+        if (!(raw instanceof List)) {
+            return new ArrayList<>();
+        }
+        List<?> cards = (List<?>) raw;
+        if (!cards.isEmpty() && cards.get(0) instanceof Map) {
+            Object winner = ((Map<?, ?>) cards.get(0)).get("locator");
+            if (winner instanceof Number) {
+                LocatorRanking.recordHit(CARD_CASCADE, cardLocators.get(((Number) winner).intValue()),
+                        (System.currentTimeMillis() - start) * 1_000_000);
+            }
+        }
+        List<FlightInfo> results = ParallelParser.map(cards, card -> card instanceof Map ? toFlightInfo((Map<?, ?>) card) : null);
+        Log.info("Harvested " + results.size() + " of " + cards.size() + " cards in one script call ("
+                + (System.currentTimeMillis() - start) + " ms)");
+        return results;
+    }
+
+    // One serialised copy of the DOM, parsed in-process: no per-element round trips and nothing can go stale
+    public List<FlightInfo> getFlightInfoFromSnapshot() {
+        long start = System.currentTimeMillis();
+        String html = captureDomSnapshot();
+        long captured = System.currentTimeMillis();
+        ResultsSnapshotParser.Cards cards = ResultsSnapshotParser.findCards(HtmlDocument.parse(html));
+        List<FlightInfo> results = ResultsSnapshotParser.parseCards(cards.elements);
+        if (cards.locator != null) {
+            LocatorRanking.recordHit(CARD_CASCADE, cards.locator, (System.currentTimeMillis() - captured) * 1_000_000);
+        }
+        Log.info("Parsed " + results.size() + " of " + cards.elements.size() + " cards from a " + html.length() / 1024
+                + " KB snapshot (capture " + (captured - start) + " ms, parse " + (System.currentTimeMillis() - captured) + " ms)");
+        return results;
+    }
+
+    private String captureDomSnapshot() {
+        if (CdpSession.isSupported(driver)) {
             try {
-                // Refetch the card element by index to avoid stale element
-                List<WebElement> freshCards = getFlightCards();
-                if (i < freshCards.size()) {
-                    card = freshCards.get(i);
-                } else {
-                    continue;
+                Map<String, Object> params = new HashMap<>();
+                params.put("depth", 0);
+                Map<String, Object> root = CdpSession.child(CdpSession.send(driver, "DOM.getDocument", params), "root");
+                Map<String, Object> outer = new HashMap<>();
+                outer.put("nodeId", CdpSession.number(root, "nodeId"));
+                String html = CdpSession.string(CdpSession.send(driver, "DOM.getOuterHTML", outer), "outerHTML");
+                if (!html.isEmpty()) {
+                    return html;
                 }
-            } catch (Exception e) {
-                continue;
+            } catch (RuntimeException e) {
+                Log.debug(() -> "DOM.getOuterHTML failed, using getPageSource: " + e.getMessage());
             }
-            FlightInfo info = null;
+        }
+        return driver.getPageSource();
+    }
+
+    // Scrolls through a virtualised / lazily loaded list in steps, keeping only cards not seen before.
+    // Java holds at most harvestMaxCards entries keyed by card; the page keeps just the key set.
+    public List<FlightInfo> harvestByScrolling() {
+        String url = driver.getCurrentUrl();
+        if (harvestCache != null && url.equals(harvestCacheUrl)) {
+            return harvestCache;
+        }
+        long start = System.currentTimeMillis();
+        List<By> cardLocators = LocatorRanking.order(CARD_CASCADE, CARD_LOCATORS);
+        List<Map<String, String>> cards = toScriptLocators(cardLocators);
+        List<Map<String, String>> prices = toScriptLocators(LocatorRanking.order(PRICE_CASCADE, PRICE_IN_CARD_LOCATORS));
+        List<Map<String, String>> airlines = toScriptLocators(AIRLINE_IN_CARD_LOCATORS);
+        String script = loadScript("js/locator-helpers.js", "js/harvest-scroll-step.js");
+        Map<String, FlightInfo> byKey = new LinkedHashMap<>();
+        int cardCount = 0;
+        int steps = 0;
+        boolean atEnd = false;
+        while (steps < harvestMaxSteps && cardCount < harvestMaxCards && !atEnd) {
+            Object raw;
             try {
-                info = parseCard(card);
-            } catch (Exception e) {
-                System.out.println("Error parsing card at index " + i + ": " + e.getMessage());
+                raw = ((JavascriptExecutor) driver).executeAsyncScript(script, cards, prices, airlines, steps == 0, 250, 2000);
+            } catch (WebDriverException e) {
+                Log.warn("Scroll harvest step " + steps + " failed: " + e.getMessage());
+                break;
             }
-            if (info != null) {
-                results.add(info);
+            steps++;
+            if (!(raw instanceof Map)) {
+                break;
+            }
+            Map<?, ?> result = (Map<?, ?>) raw;
+            atEnd = Boolean.TRUE.equals(result.get("atEnd"));
+            for (Object card : (List<?>) result.get("cards")) {
+                if (cardCount >= harvestMaxCards) {
+                    break;
+                }
+                Map<?, ?> values = (Map<?, ?>) card;
+                cardCount++;
+                FlightInfo info = toFlightInfo(values);
+                if (info != null) {
+                    byKey.putIfAbsent(String.valueOf(values.get("key")), info);
+                }
             }
         }
-        if (results.isEmpty()) {
-            System.out.println("No flight info extracted from cards");
-        }
-        return results;
+        try {
+            ((JavascriptExecutor) driver).executeScript("window.scrollTo(0, 0); delete window.__flightHarvestSeen;");
+        } catch (WebDriverException ignored) {
+        }
+        Log.info("Scroll harvest: " + cardCount + " unique card(s), " + byKey.size() + " priced, " + steps
+                + " step(s), " + (atEnd ? "end of list" : "stopped at cap") + " in " + (System.currentTimeMillis() - start) + " ms");
+        lastHarvestCardCount = cardCount;
+        List<FlightInfo> harvested = new ArrayList<>(byKey.values());
+        if (!harvested.isEmpty()) {
+            harvestCache = harvested;
+            harvestCacheUrl = url;
+        }
+        return harvested;
     }
 
     public List<Integer> getDisplayedPricesInOrder() {
         try {
             waitForResultsToLoad();
-            List<WebElement> cards = getFlightCards();
-            List<Integer> prices = new ArrayList<>();
-            for (WebElement card : cards) {
-                try {
-                    String priceText = getPriceText(card);
-                    int price = parsePrice(priceText);
-                    if (price <= 0) {
-                        price = extractPriceFromTextBlock(card.getText());
+            if ("script".equals(extractionMode) || "snapshot".equals(extractionMode)) {
+                List<FlightInfo> harvested = "script".equals(extractionMode) ? harvestFlightInfo() : getFlightInfoFromSnapshot();
+                if (!harvested.isEmpty()) {
+                    List<Integer> prices = new ArrayList<>();
+                    for (FlightInfo info : harvested) {
+                        prices.add(info.getPrice());
                     }
-                    if (price > 0) {
-                        prices.add(price);
-                    }
-                } catch (org.openqa.selenium.StaleElementReferenceException e) {
-                    // Skip stale elements
-                    System.out.println("Skipping stale element in price extraction");
-                    continue;
+                    return prices;
                 }
             }
-            System.out.println("getDisplayedPricesInOrder extracted " + prices.size() + " prices: " + prices);
+            List<Integer> prices = readCards(this::readCardPrice);
+            Log.debug(() -> "getDisplayedPricesInOrder extracted " + prices.size() + " prices: " + prices);
             return prices;
-        } catch (org.openqa.selenium.StaleElementReferenceException e) {
-            System.out.println("Stale element in getDisplayedPricesInOrder, returning empty list to trigger retry");
+        } catch (StaleElementReferenceException e) {
+            Log.debug(() -> "Stale element in getDisplayedPricesInOrder, returning empty list to trigger retry");
             return new ArrayList<>();
         }
     }
 
     public boolean applyCheapestSort() {
-        System.out.println("Attempting to apply cheapest sort...");
+        harvestCache = null;
+        Log.info("Attempting to apply cheapest sort...");
         
         // Get prices before sort
         List<Integer> pricesBeforeSort = extractPricesDirectly();
-        System.out.println("Prices BEFORE sort: " + pricesBeforeSort);
+        Log.info("Prices BEFORE sort: " + pricesBeforeSort);
+        String signatureBeforeSort = resultsSignature();
         
         // Try clicking cheapest directly
         if (clickFirstVisible(cheapestSortCandidates)) {
-            System.out.println("Successfully clicked cheapest sort option");
-            boolean sortCompleted = waitForSortToComplete();
-            List<Integer> pricesAfterSort = extractPricesDirectly();
-            System.out.println("Prices AFTER sort: " + pricesAfterSort);
-            System.out.println("Sort completed successfully: " + sortCompleted);
+            Log.info("Successfully clicked cheapest sort option");
+            boolean sortCompleted = waitForSortToComplete(signatureBeforeSort);
+            List<Integer> pricesAfterSort = lastSettledPrices;
+            Log.info("Prices AFTER sort: " + pricesAfterSort);
+            Log.info("Sort completed successfully: " + sortCompleted);
             
             // Check if sort actually changed the order
             if (!pricesBeforeSort.equals(pricesAfterSort)) {
-                System.out.println("Sort DID change the order of results");
+                Log.info("Sort DID change the order of results");
             } else {
-                System.out.println("WARNING: Sort did NOT change the order - may not have worked");
+                Log.warn("Sort did NOT change the order - may not have worked");
             }
             return true;
         }
         
         // Try opening sort menu first, then clicking cheapest
-        System.out.println("Cheapest sort not found directly, trying via sort menu...");
+        Log.info("Cheapest sort not found directly, trying via sort menu...");
         if (clickFirstVisible(sortMenuCandidates)) {
-            System.out.println("Clicked sort menu");
-            try {
-                Thread.sleep(500);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
+            Log.info("Clicked sort menu");
+            awaitReady(Duration.ofSeconds(3), ReadinessProbe.anyInteractive(cheapestSortCandidates));
             if (clickFirstVisible(cheapestSortCandidates)) {
-                System.out.println("Successfully clicked cheapest sort option from menu");
-                boolean sortCompleted = waitForSortToComplete();
-                List<Integer> pricesAfterSort = extractPricesDirectly();
-                System.out.println("Prices AFTER sort from menu: " + pricesAfterSort);
-                System.out.println("Sort from menu completed successfully: " + sortCompleted);
+                Log.info("Successfully clicked cheapest sort option from menu");
+                boolean sortCompleted = waitForSortToComplete(signatureBeforeSort);
+                List<Integer> pricesAfterSort = lastSettledPrices;
+                Log.info("Prices AFTER sort from menu: " + pricesAfterSort);
+                Log.info("Sort from menu completed successfully: " + sortCompleted);
                 
                 // Check if sort actually changed the order
                 if (!pricesBeforeSort.equals(pricesAfterSort)) {
-                    System.out.println("Sort from menu DID change the order of results");
+                    Log.info("Sort from menu DID change the order of results");
                 } else {
-                    System.out.println("WARNING: Sort from menu did NOT change the order - may not have worked");
+                    Log.warn("Sort from menu did NOT change the order - may not have worked");
                 }
                 return true;
             }
         }
         
-        System.out.println("Could not find or click sort options");
+        Log.warn("Could not find or click sort options");
         return false;
     }
 
-    private boolean waitForSortToComplete() {
-        // Add a small delay to let the click register and sorting to start
+    // Event-driven: each pass returns once the list has changed and gone quiet for sortQuietMillis.
+    // A settled but unsorted list is an intermediate render, so observation continues from its
+    // signature until the rendered order is sorted or sortTimeoutSeconds runs out.
+    private boolean waitForSortToComplete(String baseline) {
+        long deadline = System.currentTimeMillis() + sortTimeoutMillis;
+        String since = baseline;
+        List<Integer> prices = lastSettledPrices;
+        long remaining;
+        while ((remaining = deadline - System.currentTimeMillis()) > 0) {
+            Map<?, ?> result = awaitSettledResults(since, remaining);
+            prices = lastSettledPrices;
+            int unsorted = firstUnsortedIndex(prices);
+            if (unsorted < 0) {
+                if (prices.size() >= 2) {
+                    Log.info("✓ Prices ARE sorted!");
+                }
+                return !prices.isEmpty();
+            }
+            if (result == null || !Boolean.TRUE.equals(result.get("quiet"))) {
+                break;
+            }
+            Log.info("Results settled unsorted (" + prices.get(unsorted - 1) + " > " + prices.get(unsorted)
+                    + "), waiting for the next change");
+            since = String.valueOf(result.get("signature"));
+        }
+        Log.warn("⚠ Prices still NOT sorted after " + sortTimeoutMillis / 1000 + " s: " + prices);
+        return false;
+    }
+
+    private static int firstUnsortedIndex(List<Integer> prices) {
+        for (int i = 1; i < prices.size(); i++) {
+            if (prices.get(i) < prices.get(i - 1)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Prices the last sort wait settled on, in rendered order
+    public List<Integer> getLastSettledPrices() {
+        return lastSettledPrices;
+    }
+
+    private String resultsSignature() {
         try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+            Object raw = ((JavascriptExecutor) driver).executeScript(
+                    loadScript("js/locator-helpers.js", "js/results-signature.js"),
+                    toScriptLocators(LocatorRanking.order(CARD_CASCADE, CARD_LOCATORS)));
+            return raw == null ? null : String.valueOf(raw);
+        } catch (WebDriverException e) {
+            return null;
         }
-        
-        Duration timeout = Duration.ofSeconds(30);
+    }
+
+    // One quiet window after a change from baseline; sets lastSettledPrices and returns the script's
+    // result, or null when the script failed and the prices were read directly instead
+    private Map<?, ?> awaitSettledResults(String baseline, long timeoutMillis) {
+        List<By> cardLocators = LocatorRanking.order(CARD_CASCADE, CARD_LOCATORS);
+        Duration previousScriptTimeout = driver.manage().timeouts().getScriptTimeout();
+        Object raw;
         try {
-            new org.openqa.selenium.support.ui.WebDriverWait(driver, timeout).until(webDriver -> {
-                // Wait for results to load first
-                if (!hasAnyResults(webDriver)) {
-                    System.out.println("No results found yet in waitForSortToComplete");
-                    return false;
-                }
-                
-                // Don't extract prices inside the wait - just check that we have results
-                // The sort may still be in progress
-                System.out.println("Results are present, continuing...");
-                return true;
-            });
-            
-            // After results are present, wait a bit longer for the actual sort to complete
-            System.out.println("Results loaded, now waiting for sort animations to complete...");
-            Thread.sleep(3000);
-            
-            // Now check if prices are actually sorted
-            List<Integer> prices = extractPricesDirectly();
-            System.out.println("Final prices after sort wait: " + prices);
-            
-            if (prices.size() >= 2) {
-                boolean isSorted = true;
-                for (int i = 1; i < prices.size(); i++) {
-                    if (prices.get(i) < prices.get(i - 1)) {
-                        System.out.println("Prices not sorted: " + prices.get(i-1) + " > " + prices.get(i));
-                        isSorted = false;
-                        break;
-                    }
+            driver.manage().timeouts().scriptTimeout(Duration.ofMillis(timeoutMillis + 5000));
+            raw = ((JavascriptExecutor) driver).executeAsyncScript(
+                    loadScript("js/locator-helpers.js", "js/await-results-quiet.js"),
+                    toScriptLocators(cardLocators),
+                    toScriptLocators(LocatorRanking.order(PRICE_CASCADE, PRICE_IN_CARD_LOCATORS)),
+                    sortQuietMillis, timeoutMillis, baseline);
+        } catch (WebDriverException e) {
+            Log.warn("Results quiet-window wait failed: " + e.getMessage());
+            lastSettledPrices = extractPricesDirectly();
+            return null;
+        } finally {
+            driver.manage().timeouts().scriptTimeout(previousScriptTimeout);
+        }
+        List<Integer> prices = new ArrayList<>();
+        if (raw instanceof Map) {
+            Map<?, ?> result = (Map<?, ?>) raw;
+            for (Object card : (List<?>) result.get("cards")) {
+                Map<?, ?> values = (Map<?, ?>) card;
+                int price = parsePrice(String.valueOf(values.get("priceText")));
+                if (price <= 0) {
+                    price = extractPriceFromTextBlock(String.valueOf(values.get("text")));
                 }
-                if (isSorted) {
-                    System.out.println("✓ Prices ARE sorted!");
-                    return true;
-                } else {
-                    System.out.println("⚠ Prices NOT sorted, but continuing anyway");
-                    return false;
+                if (price > 0) {
+                    prices.add(price);
                 }
             }
-            return true;
-        } catch (TimeoutException e) {
-            System.out.println("⚠ Sort completion timeout after 30 seconds");
-            return false;
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            return false;
+            Log.info("Results settled in " + result.get("elapsed") + " ms after " + result.get("mutations")
+                    + " mutation(s)" + (Boolean.TRUE.equals(result.get("quiet")) ? "" : " (timed out before a change settled)")
+                    + ": " + prices);
         }
+        lastSettledPrices = prices;
+        return raw instanceof Map ? (Map<?, ?>) raw : null;
     }
 
     private List<Integer> extractPricesDirectly() {
         try {
-            List<WebElement> cards = getFlightCards();
-            List<Integer> prices = new ArrayList<>();
-            for (WebElement card : cards) {
-                try {
-                    String priceText = getPriceText(card);
-                    int price = parsePrice(priceText);
-                    if (price <= 0) {
-                        price = extractPriceFromTextBlock(card.getText());
-                    }
-                    if (price > 0) {
-                        prices.add(price);
-                    }
-                } catch (org.openqa.selenium.StaleElementReferenceException e) {
-                    System.out.println("Stale element encountered, refreshing cards...");
-                    // Continue with the next card
-                    continue;
-                }
+            return readCards(this::readCardPrice);
+        } catch (StaleElementReferenceException e) {
+            Log.debug(() -> "Results re-rendered while reading prices: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    // Resolves the card list once and reads every card from that snapshot. Cards that go stale
+    // mid-read are re-resolved together in one extra pass and matched back by their content key,
+    // so a page with N cards costs O(N) WebDriver calls instead of re-running the locator cascade per card.
+    private <T> List<T> readCards(Function<WebElement, T> reader) {
+        List<WebElement> cards = getFlightCards();
+        List<String> keys = cardKeys(cards);
+        List<T> values = new ArrayList<>(Collections.<T>nCopies(cards.size(), null));
+        List<Integer> stale = new ArrayList<>();
+        for (int i = 0; i < cards.size(); i++) {
+            try {
+                values.set(i, reader.apply(cards.get(i)));
+            } catch (StaleElementReferenceException e) {
+                stale.add(i);
+            } catch (WebDriverException e) {
+                int index = i;
+                Log.debug(() -> "Error reading card at index " + index + ": " + e.getMessage());
+            }
+        }
+        if (!stale.isEmpty()) {
+            recoverStaleCards(stale, keys, values, reader);
+        }
+        List<T> results = new ArrayList<>();
+        for (T value : values) {
+            if (value != null) {
+                results.add(value);
+            }
+        }
+        return results;
+    }
+
+    private <T> void recoverStaleCards(List<Integer> stale, List<String> keys, List<T> values, Function<WebElement, T> reader) {
+        List<WebElement> freshCards = getFlightCards();
+        List<String> freshKeys = cardKeys(freshCards);
+        Map<String, WebElement> byKey = new HashMap<>();
+        for (int i = 0; i < freshCards.size(); i++) {
+            byKey.put(freshKeys.get(i), freshCards.get(i));
+        }
+        int recovered = 0;
+        for (int index : stale) {
+            WebElement fresh = byKey.get(keys.get(index));
+            if (fresh == null) {
+                continue;
             }
-            return prices;
-        } catch (org.openqa.selenium.StaleElementReferenceException e) {
-            System.out.println("Stale element encountered in extractPricesDirectly, retrying...");
-            // Retry once
             try {
-                Thread.sleep(500);
-                List<WebElement> cards = getFlightCards();
-                List<Integer> prices = new ArrayList<>();
-                for (WebElement card : cards) {
-                    try {
-                        String priceText = getPriceText(card);
-                        int price = parsePrice(priceText);
-                        if (price <= 0) {
-                            price = extractPriceFromTextBlock(card.getText());
-                        }
-                        if (price > 0) {
-                            prices.add(price);
-                        }
-                    } catch (org.openqa.selenium.StaleElementReferenceException e2) {
-                        continue;
-                    }
+                values.set(index, reader.apply(fresh));
+                recovered++;
+            } catch (WebDriverException ignored) {
+            }
+        }
+        Log.info("Recovered " + recovered + " of " + stale.size() + " stale card(s)");
+    }
+
+    // Content-derived identity for each card (see cardKey in js/locator-helpers.js), computed in one script call
+    private List<String> cardKeys(List<WebElement> cards) {
+        List<String> keys = new ArrayList<>();
+        if (cards.isEmpty()) {
+            return keys;
+        }
+        try {
+            Object raw = ((JavascriptExecutor) driver).executeScript(
+                    loadScript("js/locator-helpers.js", "js/card-keys.js"), cards);
+            if (raw instanceof List && ((List<?>) raw).size() == cards.size()) {
+                for (Object key : (List<?>) raw) {
+                    keys.add(String.valueOf(key));
                 }
-                return prices;
-            } catch (InterruptedException e2) {
-                Thread.currentThread().interrupt();
-                return new ArrayList<>();
+                return keys;
             }
+        } catch (WebDriverException ignored) {
         }
+        for (int i = 0; i < cards.size(); i++) {
+            keys.add("#" + i);
+        }
+        return keys;
+    }
+
+    private Integer readCardPrice(WebElement card) {
+        int price = parsePrice(getPriceText(card));
+        if (price <= 0) {
+            price = extractPriceFromTextBlock(card.getText());
+        }
+        return price > 0 ? price : null;
     }
 
     private List<WebElement> getFlightCards() {
-        for (By locator : flightCardLocators) {
-            List<WebElement> elements = driver.findElements(locator);
-            System.out.println("Checking locator: " + locator + " - Found " + elements.size() + " elements");
-            
-            // Return all visible elements without strict price filtering
+        for (By locator : LocatorRanking.order(CARD_CASCADE, CARD_LOCATORS)) {
+            long start = System.nanoTime();
             List<WebElement> visibleCards = new ArrayList<>();
-            for (WebElement element : elements) {
+            for (WebElement element : driver.findElements(locator)) {
                 try {
                     if (element.isDisplayed()) {
                         visibleCards.add(element);
-                        System.out.println("Found visible flight card");
                     }
-                } catch (Exception e) {
+                } catch (WebDriverException e) {
                     // Continue checking other elements
                 }
             }
-            
             if (!visibleCards.isEmpty()) {
-                System.out.println("Returning " + visibleCards.size() + " visible cards from locator: " + locator);
+                LocatorRanking.recordHit(CARD_CASCADE, locator, System.nanoTime() - start);
+                Log.debug(() -> "Found " + visibleCards.size() + " visible cards with locator: " + locator);
                 return visibleCards;
             }
+            LocatorRanking.recordMiss(CARD_CASCADE, locator, System.nanoTime() - start);
         }
-        System.out.println("No flight cards found, trying price-based extraction");
+        Log.info("No flight cards found, trying price-based extraction");
         return deriveCardsFromPrices();
     }
 
-    private boolean clickFirstVisible(List<By> locators) {
-        for (By locator : locators) {
-            List<WebElement> elements = driver.findElements(locator);
-            for (WebElement element : elements) {
-                try {
-                    if (element.isDisplayed()) {
-                        safeClick(element);
-                        return true;
-                    }
-                } catch (Exception ignored) {
-                }
-            }
-        }
-        return false;
-    }
-
     private List<WebElement> filterCardsWithPrice(List<WebElement> elements) {
         List<WebElement> cards = new ArrayList<>();
         for (WebElement element : elements) {
@@ -415,34 +654,41 @@ public class SearchResultsPage extends BasePage {
     private FlightInfo parseCard(WebElement card) {
         try {
             String airline = getAirline(card);
-            List<String> times = getTimes(card);
-            String departure = times.isEmpty() ? "" : times.get(0);
-            String arrival = times.size() > 1 ? times.get(times.size() - 1) : "";
-            String priceText = getPriceText(card);
+            String cardText = card.getText();
+            FareTokenizer.Summary summary = FareTokenizer.summarize(cardText);
+            String priceText = getPriceText(card, cardText);
             int price = parsePrice(priceText);
             
             if (price > 0) {
-                return new FlightInfo(airline, price, departure, arrival, priceText);
+                return new FlightInfo(airline, price, summary.departureTime(), summary.arrivalTime(), priceText);
             } else {
                 return null;
             }
-        } catch (org.openqa.selenium.StaleElementReferenceException e) {
-            System.out.println("Stale element encountered, skipping this card");
-            return null;
+        } catch (StaleElementReferenceException e) {
+            throw e;
         } catch (Exception e) {
-            System.out.println("Error parsing flight card: " + e.getMessage());
+            Log.debug(() -> "Error parsing flight card: " + e.getMessage());
             return null;
         }
     }
 
+    static FlightInfo toFlightInfo(Map<?, ?> card) {
+        FareTokenizer.Summary summary = FareTokenizer.summarize(String.valueOf(card.get("text")));
+        String priceText = String.valueOf(card.get("priceText")).trim();
+        if (priceText.isEmpty()) {
+            int price = summary.getFinalFare();
+            priceText = price > 0 ? String.valueOf(price) : "";
+        }
+        int price = parsePrice(priceText);
+        if (price <= 0) {
+            return null;
+        }
+        return new FlightInfo(String.valueOf(card.get("airline")).trim(), price,
+                summary.departureTime(), summary.arrivalTime(), priceText);
+    }
+
     private String getAirline(WebElement card) {
-        List<By> airlineLocators = Arrays.asList(
-                By.cssSelector("[data-testid*='airline']"),
-                By.cssSelector("[class*='airline']"),
-                By.cssSelector("[class*='carrier']"),
-                By.cssSelector("img[alt]")
-        );
-        for (By locator : airlineLocators) {
+        for (By locator : AIRLINE_IN_CARD_LOCATORS) {
             try {
                 List<WebElement> elements = card.findElements(locator);
                 for (WebElement element : elements) {
@@ -468,43 +714,39 @@ public class SearchResultsPage extends BasePage {
         return "";
     }
 
-    private List<String> getTimes(WebElement card) {
-        List<String> times = new ArrayList<>();
-        try {
-            String cardText = card.getText();
-            Matcher matcher = timePattern.matcher(cardText);
-            while (matcher.find()) {
-                times.add(matcher.group().trim());
-            }
-        } catch (Exception e) {
-            // Return empty list if parsing fails
-        }
-        return times;
+    private String getPriceText(WebElement card) {
+        return getPriceText(card, null);
     }
 
-    private String getPriceText(WebElement card) {
-        for (By locator : priceWithinCardCandidates) {
+    private String getPriceText(WebElement card, String cardText) {
+        for (By locator : LocatorRanking.order(PRICE_CASCADE, PRICE_IN_CARD_LOCATORS)) {
+            long start = System.nanoTime();
             List<WebElement> priceElements = card.findElements(locator);
             for (WebElement element : priceElements) {
                 String text = element.getText().trim();
-                if (text.matches(".*\\d+.*")) {
+                if (hasDigit(text)) {
+                    LocatorRanking.recordHit(PRICE_CASCADE, locator, System.nanoTime() - start);
                     return text;
                 }
             }
+            LocatorRanking.recordMiss(PRICE_CASCADE, locator, System.nanoTime() - start);
         }
-        int price = extractPriceFromTextBlock(card.getText());
+        int price = extractPriceFromTextBlock(cardText != null ? cardText : card.getText());
         return price > 0 ? String.valueOf(price) : "";
     }
 
-    private int parsePrice(String priceText) {
-        if (priceText == null) {
-            return -1;
-        }
-        String digits = priceText.replaceAll("[^0-9]", "");
-        if (digits.isEmpty()) {
-            return -1;
+    // "₹5,120 ₹4,899" is a struck and a final fare, not 51204899
+    private static int parsePrice(String priceText) {
+        return FareTokenizer.finalFare(priceText);
+    }
+
+    private static boolean hasDigit(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.isDigit(text.charAt(i))) {
+                return true;
+            }
         }
-        return Integer.parseInt(digits);
+        return false;
     }
 
     private boolean hasPriceCandidate(WebElement card) {
@@ -513,13 +755,11 @@ public class SearchResultsPage extends BasePage {
     }
 
     private boolean hasAnyResults(WebDriver webDriver) {
-        for (By locator : flightCardLocators) {
-            List<WebElement> cards = webDriver.findElements(locator);
-            System.out.println("Checking locator: " + locator + " - Found " + cards.size() + " elements");
-            for (WebElement card : cards) {
+        for (By locator : LocatorRanking.order(CARD_CASCADE, CARD_LOCATORS)) {
+            for (WebElement card : webDriver.findElements(locator)) {
                 try {
                     if (card.isDisplayed()) {
-                        System.out.println("Found visible flight card using locator: " + locator);
+                        Log.trace(() -> "Found visible flight card using locator: " + locator);
                         return true;
                     }
                 } catch (Exception e) {
@@ -532,7 +772,7 @@ public class SearchResultsPage extends BasePage {
         try {
             List<WebElement> priceElements = webDriver.findElements(By.cssSelector("[class*='price'], [data-testid*='price'], [class*='fare']"));
             if (!priceElements.isEmpty()) {
-                System.out.println("Found " + priceElements.size() + " price elements as fallback");
+                Log.trace(() -> "Found " + priceElements.size() + " price elements as fallback");
                 return true;
             }
         } catch (Exception ignored) {
@@ -544,14 +784,14 @@ public class SearchResultsPage extends BasePage {
             String title = webDriver.getTitle().toLowerCase();
             String url = webDriver.getCurrentUrl().toLowerCase();
             if (title.contains("result") || title.contains("flight") || url.contains("result") || url.contains("flight")) {
-                System.out.println("Using page title/URL fallback for results detection");
+                Log.trace(() -> "Using page title/URL fallback for results detection");
                 return true;
             }
         } catch (Exception ignored) {
             // Continue
         }
         
-        System.out.println("No flight results found using any method");
+        Log.trace(() -> "No flight results found using any method");
         return false;
     }
 
@@ -567,50 +807,33 @@ public class SearchResultsPage extends BasePage {
         if (text == null || text.isEmpty()) {
             return -1;
         }
-        String sanitized = text.replaceAll("\\b\\d{1,2}:\\d{2}(\\s?[APMapm]{2})?\\b", " ");
-        sanitized = sanitized.replaceAll("\\b\\d+\\s*h\\b", " ");
-        sanitized = sanitized.replaceAll("\\b\\d+\\s*m\\b", " ");
-        Matcher matcher = priceNumberPattern.matcher(sanitized);
-        int max = -1;
-        while (matcher.find()) {
-            try {
-                int value = Integer.parseInt(matcher.group());
-                if (value > max) {
-                    max = value;
-                }
-            } catch (NumberFormatException ignored) {
-            }
-        }
-        return max;
+        return FareTokenizer.finalFare(text);
     }
 
     private void logResultsDiagnostics() {
-        List<WebElement> candidates = new ArrayList<>();
-        for (By locator : pricePageCandidates) {
-            candidates.addAll(driver.findElements(locator));
-        }
-        int printed = 0;
-        for (WebElement element : candidates) {
-            try {
-                String text = element.getText().trim();
-                if (!text.isEmpty()) {
-                    System.out.println("Price candidate: " + text);
-                    printed++;
-                }
-                if (printed >= 10) {
-                    break;
+        // Reading candidate texts costs a WebDriver call each, so only when debug lines are printed
+        if (Log.isPrinted(Log.Level.DEBUG)) {
+            List<WebElement> candidates = new ArrayList<>();
+            for (By locator : pricePageCandidates) {
+                candidates.addAll(driver.findElements(locator));
+            }
+            int printed = 0;
+            for (WebElement element : candidates) {
+                try {
+                    String text = element.getText().trim();
+                    if (!text.isEmpty()) {
+                        Log.debug(() -> "Price candidate: " + text);
+                        printed++;
+                    }
+                    if (printed >= 10) {
+                        break;
+                    }
+                } catch (Exception ignored) {
                 }
-            } catch (Exception ignored) {
             }
         }
 
-        try {
-            String source = driver.getPageSource();
-            Files.createDirectories(Paths.get("target"));
-            Files.write(Paths.get("target", "ixigo-results-source.html"), source.getBytes(StandardCharsets.UTF_8));
-            System.out.println("Results page source saved to target/ixigo-results-source.html");
-        } catch (Exception ignored) {
-        }
+        DiagnosticsWriter.capturePageSource(driver, "results");
     }
 
     public static class FlightInfo {
@@ -0,0 +1,51 @@
+package tests;
+
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import utils.AirportIndex;
+import utils.AirportIndex.Airport;
+
+public class AirportIndexTest {
+    private final AirportIndex index = AirportIndex.shared();
+
+    @Test
+    public void resolvesCodesCitiesAndOldNames() {
+        Assert.assertEquals(index.resolve("BLR").getCode(), "BLR");
+        Assert.assertEquals(index.resolve("Bangalore").getCode(), "BLR");
+        Assert.assertEquals(index.resolve("Bengaluru").getCode(), "BLR");
+        Assert.assertEquals(index.resolve("bombay").getCode(), "BOM");
+        Assert.assertEquals(index.resolve("Madras").getCode(), "MAA");
+        Assert.assertEquals(index.resolve("New Delhi").getCode(), "DEL");
+        Assert.assertEquals(index.resolve("Mumbai, Maharashtra").getCode(), "BOM");
+        Assert.assertEquals(index.resolve("Pondichéry").getCode(), "PNY");
+    }
+
+    @Test
+    public void completesPrefixesWithExactKeysFirst() {
+        List<Airport> goa = index.complete("Goa", 5);
+        Assert.assertEquals(goa.get(0).getCode(), "GOI");
+        Assert.assertEquals(goa.get(1).getCode(), "GOX");
+        Assert.assertEquals(index.complete("Hyder", 1).get(0).getCode(), "HYD");
+        Assert.assertEquals(index.resolve("Shivaji").getCode(), "BOM");
+        Assert.assertTrue(index.complete("zzz", 5).isEmpty());
+    }
+
+    @Test
+    public void toleratesMisspellings() {
+        Assert.assertEquals(index.resolve("Chenai").getCode(), "MAA");
+        Assert.assertEquals(index.resolve("Banglore").getCode(), "BLR");
+        Assert.assertEquals(index.resolve("Thiruvanathapuram").getCode(), "TRV");
+        Assert.assertNull(index.resolve("Atlantis"));
+    }
+
+    @Test
+    public void recognisesSuggestionTextForAnAirport() {
+        Airport blr = index.byCode("BLR");
+        Assert.assertTrue(index.describes("Bengaluru, Karnataka\nBLR\nKempegowda International Airport", blr));
+        Assert.assertTrue(index.describes("Bangalore (BLR)", blr));
+        Assert.assertFalse(index.describes("Belagavi, Karnataka\nIXG", blr));
+    }
+}
@@ -0,0 +1,40 @@
+package tests;
+
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import utils.DateUtils;
+
+public class DateUtilsTest {
+
+    @Test
+    public void parsesCalendarMonthHeaders() {
+        Assert.assertEquals(DateUtils.parseMonthHeader("January 2026"), YearMonth.of(2026, 1));
+        Assert.assertEquals(DateUtils.parseMonthHeader(" Jan, 2026 "), YearMonth.of(2026, 1));
+        Assert.assertEquals(DateUtils.parseMonthHeader("Sept '26"), YearMonth.of(2026, 9));
+        Assert.assertEquals(DateUtils.parseMonthHeader("may 2027"), YearMonth.of(2027, 5));
+    }
+
+    @Test
+    public void rejectsTextThatIsNotAMonthHeader() {
+        Assert.assertNull(DateUtils.parseMonthHeader("Jan 26"));
+        Assert.assertNull(DateUtils.parseMonthHeader("Departure 2026"));
+        Assert.assertNull(DateUtils.parseMonthHeader("Mon, 26 Jan 2026"));
+        Assert.assertNull(DateUtils.parseMonthHeader(null));
+    }
+
+    @Test
+    public void computesOffsetFromTheVisibleRange() {
+        YearMonth jan = YearMonth.of(2026, 1);
+        YearMonth feb = YearMonth.of(2026, 2);
+        Assert.assertEquals(DateUtils.monthOffset(Arrays.asList(jan, feb), jan), 0);
+        Assert.assertEquals(DateUtils.monthOffset(Arrays.asList(jan, feb), feb), 0);
+        Assert.assertEquals(DateUtils.monthOffset(Arrays.asList(jan, feb), YearMonth.of(2026, 5)), 3);
+        Assert.assertEquals(DateUtils.monthOffset(Arrays.asList(feb, jan), YearMonth.of(2025, 11)), -2);
+        Assert.assertEquals(DateUtils.monthOffset(Collections.singletonList(jan), YearMonth.of(2027, 1)), 12);
+    }
+}
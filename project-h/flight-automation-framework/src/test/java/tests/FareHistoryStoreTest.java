@@ -0,0 +1,97 @@
+package tests;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import utils.FareHistoryStore;
+import utils.FareHistoryStore.Observation;
+
+public class FareHistoryStoreTest {
+    private static final LocalDate REPUBLIC_DAY = LocalDate.of(2027, 1, 26);
+    private static final Instant NOW = Instant.parse("2027-01-10T06:00:00Z");
+
+    private Path file;
+
+    @BeforeMethod
+    public void createFile() throws IOException {
+        file = Files.createTempFile("fare-history", ".bin");
+        Files.delete(file);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void answersCheapestFareForRouteAndDateWithinWindow() {
+        try (FareHistoryStore store = FareHistoryStore.open(file)) {
+            store.append(observation(NOW.minus(Duration.ofDays(10)), "BOM", "BLR", REPUBLIC_DAY, 2999, "IndiGo"));
+            store.append(observation(NOW.minus(Duration.ofDays(3)), "BOM", "BLR", REPUBLIC_DAY, 4899, "Air India"));
+            store.append(observation(NOW.minus(Duration.ofDays(2)), "BLR", "BOM", REPUBLIC_DAY, 1999, "Akasa Air"));
+            store.append(observation(NOW.minus(Duration.ofDays(1)), "BOM", "BLR", REPUBLIC_DAY.plusDays(1), 2499, "SpiceJet"));
+            store.append(observation(NOW, "BOM", "BLR", REPUBLIC_DAY, 4599, "IndiGo"));
+
+            Observation weekLow = store.cheapest("BOM", "BLR", REPUBLIC_DAY, NOW.minus(Duration.ofDays(7)));
+            Assert.assertNotNull(weekLow);
+            Assert.assertEquals(weekLow.getPrice(), 4599);
+            Assert.assertEquals(weekLow.getAirline(), "IndiGo");
+            Assert.assertEquals(store.cheapest("BOM", "BLR", REPUBLIC_DAY, Instant.MIN).getPrice(), 2999);
+            Assert.assertNull(store.cheapest("DEL", "BLR", REPUBLIC_DAY, Instant.MIN));
+            Assert.assertEquals(store.query("BOM", "BLR", REPUBLIC_DAY, Instant.MIN, NOW).size(), 2);
+        }
+    }
+
+    @Test
+    public void persistsAcrossReopenAndGrowsPastInitialMapping() {
+        List<Observation> batch = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            batch.add(observation(NOW.plusSeconds(i), "DEL", "GOI", REPUBLIC_DAY, 3000 + i % 997, "Vistara"));
+        }
+        try (FareHistoryStore store = FareHistoryStore.open(file)) {
+            store.appendAll(batch);
+        }
+        try (FareHistoryStore store = FareHistoryStore.open(file)) {
+            Assert.assertEquals(store.size(), 5000);
+            List<Observation> lastHour = store.query("DEL", "GOI", REPUBLIC_DAY, NOW.plusSeconds(5000 - 3600), Instant.MAX);
+            Assert.assertEquals(lastHour.size(), 3600);
+            Assert.assertEquals(lastHour.get(0).getObservedAt(), NOW.plusSeconds(5000 - 3600));
+            Assert.assertEquals(lastHour.get(0).getDepartureMinutes(), 365);
+            Assert.assertEquals(lastHour.get(0).getFrom() + lastHour.get(0).getTo(), "DELGOI");
+        }
+    }
+
+    @Test
+    public void truncatesLongAirlineNamesOnCharacterBoundary() {
+        try (FareHistoryStore store = FareHistoryStore.open(file)) {
+            store.append(observation(NOW, "BOM", "BLR", REPUBLIC_DAY, 5000, "Air India Express"));
+            store.append(observation(NOW, "BOM", "BLR", REPUBLIC_DAY.plusDays(1), 5000, "इंडिगो एयरलाइंस"));
+
+            Assert.assertEquals(store.cheapest("BOM", "BLR", REPUBLIC_DAY, Instant.MIN).getAirline(), "Air India Expres");
+            String truncated = store.cheapest("BOM", "BLR", REPUBLIC_DAY.plusDays(1), Instant.MIN).getAirline();
+            Assert.assertTrue("इंडिगो एयरलाइंस".startsWith(truncated) && !truncated.isEmpty(), truncated);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void rejectsCityNamesInPlaceOfAirportCodes() {
+        try (FareHistoryStore store = FareHistoryStore.open(file)) {
+            store.append(observation(NOW, "Mumbai", "BLR", REPUBLIC_DAY, 5000, "IndiGo"));
+        }
+    }
+
+    private Observation observation(Instant observedAt, String from, String to, LocalDate travelDate, int price, String airline) {
+        return new Observation(observedAt, from, to, travelDate, price, 365, 530, airline);
+    }
+}
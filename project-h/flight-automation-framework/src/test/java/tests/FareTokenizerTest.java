@@ -0,0 +1,58 @@
+package tests;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import utils.FareTokenizer;
+
+public class FareTokenizerTest {
+
+    @DataProvider(name = "cardCorpus")
+    public Object[][] cardCorpus() throws IOException {
+        List<Object[]> cases = new ArrayList<>();
+        try (InputStream input = getClass().getClassLoader().getResourceAsStream("corpus/fare-cards.tsv")) {
+            Assert.assertNotNull(input, "corpus/fare-cards.tsv missing from test resources");
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\t", -1);
+                Assert.assertEquals(fields.length, 6, "Malformed corpus line: " + line);
+                cases.add(new Object[] {fields[0].replace("\\n", "\n"), fields[1], fields[2], fields[3], fields[4], fields[5]});
+            }
+        }
+        return cases.toArray(new Object[0][]);
+    }
+
+    @Test(dataProvider = "cardCorpus")
+    public void tokenizesCardText(String text, String fare, String struck, String departure, String arrival, String duration) {
+        FareTokenizer.Summary summary = FareTokenizer.summarize(text);
+        Assert.assertEquals(summary.getFinalFare(), expectedNumber(fare), "final fare of: " + text);
+        Assert.assertEquals(summary.getStruckFare(), expectedNumber(struck), "struck fare of: " + text);
+        Assert.assertEquals(summary.departureTime(), "-".equals(departure) ? "" : departure, "departure of: " + text);
+        Assert.assertEquals(summary.arrivalTime(), "-".equals(arrival) ? "" : arrival, "arrival of: " + text);
+        Assert.assertEquals(summary.getDuration(), expectedNumber(duration), "duration of: " + text);
+    }
+
+    @Test
+    public void keepsGroupedFaresApartInsteadOfConcatenatingDigits() {
+        Assert.assertEquals(FareTokenizer.finalFare("₹5,120 ₹4,899"), 4899);
+        Assert.assertEquals(FareTokenizer.finalFare("4899"), 4899);
+        Assert.assertEquals(FareTokenizer.finalFare("Sold out"), FareTokenizer.NONE);
+    }
+
+    private int expectedNumber(String value) {
+        return "-".equals(value) ? FareTokenizer.NONE : Integer.parseInt(value);
+    }
+}
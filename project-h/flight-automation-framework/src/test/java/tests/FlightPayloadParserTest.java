@@ -0,0 +1,54 @@
+package tests;
+
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import pages.FlightPayloadParser;
+import pages.SearchResultsPage.FlightInfo;
+
+public class FlightPayloadParserTest {
+
+    @Test
+    public void findsItinerariesNestedAnywhereInThePayload() {
+        String body = "{\"data\":{\"results\":[{\"itineraries\":["
+                + "{\"airline\":{\"name\":\"IndiGo\"},\"fare\":{\"total\":5499},\"departureTime\":\"2026-01-26T06:05:00\","
+                + "\"arrivalTime\":\"08:50\",\"origin\":{\"code\":\"BOM\"},\"destination\":{\"code\":\"BLR\"}},"
+                + "{\"carrierName\":\"Air India\",\"totalFare\":4899.4,\"depTime\":\"21:30\",\"arrTime\":\"0:20\"}]}]}}";
+
+        List<FlightInfo> flights = FlightPayloadParser.parse(body);
+
+        Assert.assertEquals(flights.size(), 2, flights.toString());
+        Assert.assertEquals(flights.get(0).getAirline(), "IndiGo");
+        Assert.assertEquals(flights.get(0).getPrice(), 5499);
+        Assert.assertEquals(flights.get(0).getDepartureTime(), "06:05");
+        Assert.assertEquals(flights.get(0).getFromLocation(), "BOM");
+        Assert.assertEquals(flights.get(0).getToLocation(), "BLR");
+        Assert.assertEquals(flights.get(1).getAirline(), "Air India");
+        Assert.assertEquals(flights.get(1).getPrice(), 4899);
+        Assert.assertEquals(flights.get(1).getArrivalTime(), "00:20");
+    }
+
+    @Test
+    public void readsTheFinalFareFromFormattedStrings() {
+        String body = "[{\"airline\":\"Akasa Air\",\"displayFare\":\"₹5,120 ₹4,899\"},"
+                + "{\"airline\":\"SpiceJet\",\"price\":{\"display\":\"Rs. 1,02,345\"}},"
+                + "{\"airline\":\"Vistara\",\"price\":\"INR 7250.00\"}]";
+
+        List<FlightInfo> flights = FlightPayloadParser.parse(body);
+
+        Assert.assertEquals(flights.size(), 3, flights.toString());
+        Assert.assertEquals(flights.get(0).getPrice(), 4899);
+        Assert.assertEquals(flights.get(1).getPrice(), 102345);
+        Assert.assertEquals(flights.get(2).getPrice(), 7250);
+    }
+
+    @Test
+    public void skipsObjectsWithoutFareOrAirlineAndBadJson() {
+        Assert.assertTrue(FlightPayloadParser.parse("{\"airline\":\"IndiGo\",\"fare\":\"sold out\"}").isEmpty());
+        Assert.assertTrue(FlightPayloadParser.parse("{\"fare\":4500}").isEmpty());
+        Assert.assertTrue(FlightPayloadParser.parse("not json").isEmpty());
+        Assert.assertTrue(FlightPayloadParser.parse(null).isEmpty());
+    }
+}
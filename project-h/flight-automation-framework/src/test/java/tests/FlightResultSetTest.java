@@ -0,0 +1,132 @@
+package tests;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import pages.FlightResultSet;
+import pages.SearchResultsPage.FlightInfo;
+
+public class FlightResultSetTest {
+
+    @Test
+    public void sortsByPriceKeepingTiesInInsertionOrder() {
+        FlightResultSet set = withPrices(300, 100, 200, 100, 300);
+
+        Assert.assertEquals(set.sortIndexByPrice(), new int[] {1, 3, 2, 0, 4});
+    }
+
+    @Test
+    public void packedSortHandlesTheFullIntRange() {
+        FlightResultSet set = withPrices(Integer.MAX_VALUE, 0, Integer.MIN_VALUE, -1, Integer.MAX_VALUE);
+
+        Assert.assertEquals(set.sortIndexByPrice(), new int[] {2, 3, 1, 0, 4});
+    }
+
+    @Test
+    public void topKReturnsTheCheapestRowsCheapestFirst() {
+        FlightResultSet set = withPrices(300, 100, 200, 100, 300);
+
+        Assert.assertEquals(set.topKByPrice(1), new int[] {1});
+        Assert.assertEquals(set.topKByPrice(3), new int[] {1, 3, 2});
+        Assert.assertEquals(set.topKByPrice(4), new int[] {1, 3, 2, 0});
+    }
+
+    @Test
+    public void topKClampsToTheSetSize() {
+        FlightResultSet set = withPrices(300, 100, 200);
+
+        Assert.assertEquals(set.topKByPrice(3), new int[] {1, 2, 0});
+        Assert.assertEquals(set.topKByPrice(10), new int[] {1, 2, 0});
+        Assert.assertEquals(withPrices().topKByPrice(5), new int[0]);
+    }
+
+    @Test
+    public void topKOfZeroOrLessIsEmpty() {
+        FlightResultSet set = withPrices(300, 100, 200);
+
+        Assert.assertEquals(set.topKByPrice(0), new int[0]);
+        Assert.assertEquals(set.topKByPrice(-1), new int[0]);
+    }
+
+    // Many duplicate prices push rows through both heap paths; the reference is a stable sort of boxed rows
+    @Test
+    public void topKAndSortAgreeWithAStableReferenceSort() {
+        Random random = new Random(42);
+        int[] prices = new int[500];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = 3000 + random.nextInt(40) * 50;
+        }
+        FlightResultSet set = withPrices(prices);
+        List<Integer> reference = new ArrayList<>();
+        for (int row = 0; row < prices.length; row++) {
+            reference.add(row);
+        }
+        reference.sort(Comparator.comparingInt(row -> prices[row]));
+        int[] expected = reference.stream().mapToInt(Integer::intValue).toArray();
+
+        Assert.assertEquals(set.sortIndexByPrice(), expected);
+        for (int k : new int[] {1, 2, 7, 64, 499, 500}) {
+            Assert.assertEquals(set.topKByPrice(k), Arrays.copyOf(expected, k), "k=" + k);
+        }
+    }
+
+    @Test
+    public void parsesTwentyFourHourTimes() {
+        Assert.assertEquals(FlightResultSet.minutesOfDay("06:05"), 365);
+        Assert.assertEquals(FlightResultSet.minutesOfDay("0:20"), 20);
+        Assert.assertEquals(FlightResultSet.minutesOfDay("23:59"), 1439);
+        Assert.assertEquals(FlightResultSet.minutesOfDay("Departs 21:30"), 1290);
+    }
+
+    @Test
+    public void convertsTwelveHourClockTimes() {
+        Assert.assertEquals(FlightResultSet.minutesOfDay("12:00 AM"), 0);
+        Assert.assertEquals(FlightResultSet.minutesOfDay("12:15 am"), 15);
+        Assert.assertEquals(FlightResultSet.minutesOfDay("12:00 PM"), 720);
+        Assert.assertEquals(FlightResultSet.minutesOfDay("12:30PM"), 750);
+        Assert.assertEquals(FlightResultSet.minutesOfDay("1:05 pm"), 785);
+        Assert.assertEquals(FlightResultSet.minutesOfDay("11:59 PM"), 1439);
+        Assert.assertEquals(FlightResultSet.minutesOfDay("9:45 AM"), 585);
+    }
+
+    @Test
+    public void unreadableTimesAreNoTime() {
+        Assert.assertEquals(FlightResultSet.minutesOfDay(null), FlightResultSet.NO_TIME);
+        Assert.assertEquals(FlightResultSet.minutesOfDay(""), FlightResultSet.NO_TIME);
+        Assert.assertEquals(FlightResultSet.minutesOfDay("noon"), FlightResultSet.NO_TIME);
+        Assert.assertEquals(FlightResultSet.minutesOfDay("6"), FlightResultSet.NO_TIME);
+        Assert.assertEquals(FlightResultSet.minutesOfDay("24:00"), FlightResultSet.NO_TIME);
+        Assert.assertEquals(FlightResultSet.minutesOfDay("10:60"), FlightResultSet.NO_TIME);
+    }
+
+    @Test
+    public void rowsRoundTripThroughTheColumns() {
+        FlightResultSet set = FlightResultSet.of(Arrays.asList(
+                new FlightInfo("IndiGo", 5499, "9:45 PM", "12:10 AM", "₹5,499", "BOM", "BLR"),
+                new FlightInfo("Air India", 4899, "TBA", null, "₹4,899", "BOM", "BLR")));
+
+        FlightInfo first = set.get(0);
+        Assert.assertEquals(first.getAirline(), "IndiGo");
+        Assert.assertEquals(first.getPrice(), 5499);
+        Assert.assertEquals(first.getDepartureTime(), "21:45");
+        Assert.assertEquals(first.getArrivalTime(), "00:10");
+        Assert.assertEquals(first.getFromLocation(), "BOM");
+        Assert.assertEquals(set.departureMinutes(1), FlightResultSet.NO_TIME);
+        Assert.assertEquals(set.get(1).getDepartureTime(), "");
+        Assert.assertEquals(set.airlineId(0), set.select(new int[] {0}).airlineId(0));
+    }
+
+    private static FlightResultSet withPrices(int... prices) {
+        List<FlightInfo> flights = new ArrayList<>();
+        for (int i = 0; i < prices.length; i++) {
+            flights.add(new FlightInfo("Airline " + (i % 3), prices[i], "06:00", "08:00", String.valueOf(prices[i]), "BOM", "BLR"));
+        }
+        return FlightResultSet.of(flights);
+    }
+}
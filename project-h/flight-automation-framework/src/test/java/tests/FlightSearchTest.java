@@ -1,28 +1,43 @@
 package tests;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WindowType;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import base.BaseTest;
+import pages.FlightResultSet;
+import pages.FlightsPage;
+import pages.HomePage;
+import pages.SearchResultsPage;
 import pages.SearchResultsPage.FlightInfo;
+import utils.AirportIndex;
 import utils.ConfigReader;
 import utils.DateUtils;
+import utils.FareHistoryStore;
+import utils.Log;
 import utils.ScreenshotUtils;
 
 public class FlightSearchTest extends BaseTest {
 
     @Test
     public void endToEndFlightSearch() {
+        WebDriver driver = getDriver();
+        HomePage homePage = getHomePage();
+        SearchResultsPage searchResultsPage = getSearchResultsPage();
         try {
             homePage.closeLoginIfPresent();
-            flightsPage = homePage.openFlightsSection();
+            FlightsPage flightsPage = homePage.openFlightsSection();
+            setFlightsPage(flightsPage);
 
             String fromCity = getPropertyOrDefault("fromCity", "Mumbai");
             String toCity = getPropertyOrDefault("toCity", "Bangalore");
@@ -32,26 +47,30 @@ public class FlightSearchTest extends BaseTest {
             String travelMonth = ConfigReader.getProperty("departureMonth");
             LocalDate departureDate = DateUtils.getNextOccurrence(travelMonth, travelDay);
             boolean skipSearchForm = ConfigReader.getBooleanProperty("skipSearchForm", false);
+            // Null when the city is unknown; the search still runs on a fallback code, but its fares are not filed under it
+            String knownFromCode = fromCodeOverride != null ? fromCodeOverride : resolveCityCode(fromCity);
+            String knownToCode = toCodeOverride != null ? toCodeOverride : resolveCityCode(toCity);
+            String fromCode = codeOrFallback(fromCity, knownFromCode, "BOM");
+            String toCode = codeOrFallback(toCity, knownToCode, "BLR");
 
             if (!skipSearchForm) {
                 try {
+                    flightsPage.waitForSearchFormInteractive();
                     flightsPage.enterFromCity(fromCity);
                     flightsPage.enterToCity(toCity);
                     flightsPage.selectDepartureDate(departureDate);
                     flightsPage.clickSearch();
                 } catch (Exception e) {
-                    String fromCode = fromCodeOverride != null ? fromCodeOverride : resolveCityCode(fromCity, "BOM");
-                    String toCode = toCodeOverride != null ? toCodeOverride : resolveCityCode(toCity, "BLR");
                     String resultsUrl = buildIxigoResultsUrl(fromCode, toCode, departureDate);
-                    System.out.println("Search form unavailable, navigating directly to results: " + resultsUrl);
+                    Log.info("Search form unavailable, navigating directly to results: " + resultsUrl);
                     driver.get(resultsUrl);
+                    searchResultsPage.waitForResultsContainerAttached();
                 }
             } else {
-                String fromCode = fromCodeOverride != null ? fromCodeOverride : resolveCityCode(fromCity, "BOM");
-                String toCode = toCodeOverride != null ? toCodeOverride : resolveCityCode(toCity, "BLR");
                 String resultsUrl = buildIxigoResultsUrl(fromCode, toCode, departureDate);
-                System.out.println("Skipping search form, navigating directly to results: " + resultsUrl);
+                Log.info("Skipping search form, navigating directly to results: " + resultsUrl);
                 driver.get(resultsUrl);
+                flightsPage.waitForSearchFormInteractive();
                 flightsPage.syncSearchBarWithUrl(fromCity, toCity, departureDate);
                 flightsPage.clickSearch();
             }
@@ -61,95 +80,69 @@ public class FlightSearchTest extends BaseTest {
             int resultCount = searchResultsPage.getResultsCount();
             Assert.assertTrue(resultCount > 0, "Flight results count should be greater than 0");
 
-            List<FlightInfo> allFlights = searchResultsPage.getAllFlightInfo();
-            List<FlightInfo> pricedFlights = allFlights.stream()
-                    .filter(flight -> flight.getPrice() > 0)
-                    .collect(Collectors.toList());
+            FlightResultSet allFlights = FlightResultSet.of(searchResultsPage.getAllFlightInfo());
+            FlightResultSet pricedFlights = allFlights.select(allFlights.rowsInPriceRange(1, Integer.MAX_VALUE));
 
             Assert.assertTrue(pricedFlights.size() > 0, "No priced flights found for sorting");
 
-            List<FlightInfo> sortedFlights = new ArrayList<>(pricedFlights);
-            sortedFlights.sort(Comparator.comparingInt(FlightInfo::getPrice));
+            int[] cheapestRows = pricedFlights.topKByPrice(2);
+            FlightInfo cheapest = pricedFlights.get(cheapestRows[0]);
+            Log.info("=========================================");
+            Log.info(cheapest.getCheapestDisplay());
+            Log.info("=========================================");
+            Log.info("Cheapest Flight Details: " + cheapest.toString());
 
-            FlightInfo cheapest = sortedFlights.get(0);
-            System.out.println("=========================================");
-            System.out.println(cheapest.getCheapestDisplay());
-            System.out.println("=========================================");
-            System.out.println("Cheapest Flight Details: " + cheapest.toString());
-
-            if (sortedFlights.size() > 1) {
-                FlightInfo secondCheapest = sortedFlights.get(1);
-                System.out.println("Second Cheapest Flight: " + secondCheapest.toString());
+            if (cheapestRows.length > 1) {
+                FlightInfo secondCheapest = pricedFlights.get(cheapestRows[1]);
+                Log.info("Second Cheapest Flight: " + secondCheapest.toString());
+            }
+            if (knownFromCode != null && knownToCode != null) {
+                recordFareHistory(fromCode, toCode, departureDate, pricedFlights);
+            } else {
+                Log.warn("Fare history not recorded: route " + fromCity + " -> " + toCity + " was not resolved to airport codes");
             }
 
-            List<Integer> sortedPrices = sortedFlights.stream()
-                    .map(FlightInfo::getPrice)
-                    .collect(Collectors.toList());
-            Assert.assertTrue(isSortedAscending(sortedPrices), "Sorted prices are not in ascending order");
+            int[] sortedRows = pricedFlights.sortIndexByPrice();
+            int[] expectedPrices = IntStream.range(0, pricedFlights.size()).map(pricedFlights::price).sorted().toArray();
+            int[] sortedPrices = Arrays.stream(sortedRows).map(pricedFlights::price).toArray();
+            Assert.assertEquals(sortedPrices, expectedPrices, "Sorted prices are not in ascending order");
+            Assert.assertEquals(pricedFlights.price(sortedRows[0]), cheapest.getPrice(), "Top-K and full sort disagree on the cheapest fare");
 
             if (sortApplied) {
-                List<Integer> displayedPrices = new ArrayList<>();
-                int maxTries = 3;
-                for (int attempt = 1; attempt <= maxTries; attempt++) {
-                    try {
-                        displayedPrices = searchResultsPage.getDisplayedPricesInOrder();
-                        System.out.println("Displayed prices (UI order, attempt " + attempt + "): " + displayedPrices);
-                        
-                        // If we got prices and they're sorted, we're done
-                        if (!displayedPrices.isEmpty() && isSortedAscending(displayedPrices)) {
-                            System.out.println("✓ Prices are sorted on attempt " + attempt);
-                            break;
-                        }
-                        
-                        if (attempt < maxTries && !displayedPrices.isEmpty()) {
-                            System.out.println("✗ Prices not sorted on attempt " + attempt + ", retrying...");
-                            try {
-                                Thread.sleep(2000); // Wait longer between attempts
-                            } catch (InterruptedException e) {
-                                Thread.currentThread().interrupt();
-                            }
-                        }
-                    } catch (org.openqa.selenium.StaleElementReferenceException e) {
-                        System.out.println("⚠ Stale element on attempt " + attempt + ", retrying...");
-                        if (attempt < maxTries) {
-                            try {
-                                Thread.sleep(2000);
-                            } catch (InterruptedException e2) {
-                                Thread.currentThread().interrupt();
-                            }
-                        }
-                    }
+                // applyCheapestSort already waited for the list to settle sorted; reuse what it saw
+                List<Integer> displayedPrices = searchResultsPage.getLastSettledPrices();
+                if (displayedPrices.isEmpty()) {
+                    displayedPrices = searchResultsPage.getDisplayedPricesInOrder();
                 }
-                
+                Log.info("Displayed prices (UI order): " + displayedPrices);
+
                 // Check results
                 if (displayedPrices.isEmpty()) {
-                    System.out.println("WARNING: Could not extract prices for UI sort validation, skipping assertion");
+                    Log.warn("Could not extract prices for UI sort validation, skipping assertion");
                     // Don't fail - the sort button may have clicked but the page structure changed
                 } else if (displayedPrices.size() == 1) {
-                    System.out.println("WARNING: Only 1 price extracted, skipping UI sort validation");
+                    Log.warn("Only 1 price extracted, skipping UI sort validation");
                     // Not enough prices to validate sorting
                 } else if (!isSortedAscending(displayedPrices)) {
-                    System.out.println("⚠ WARNING: Prices are NOT sorted even after retries: " + displayedPrices);
-                    System.out.println("The sort button may not be working correctly on this website.");
-                    System.out.println("Expected sorted order would be: " + displayedPrices.stream().sorted().collect(Collectors.toList()));
+                    Log.warn("Prices are NOT sorted after the list settled: " + displayedPrices);
+                    Log.warn("The sort button may not be working correctly on this website.");
+                    Log.warn("Expected sorted order would be: " + displayedPrices.stream().sorted().collect(Collectors.toList()));
                     // Don't fail the test - the sort button exists and was clicked, but may not be working
-                    System.out.println("Skipping UI sort assertion due to website sort not working as expected");
+                    Log.info("Skipping UI sort assertion due to website sort not working as expected");
                 } else {
-                    System.out.println("✓ UI sorting validation passed for cheapest order");
+                    Log.info("✓ UI sorting validation passed for cheapest order");
                 }
             } else {
-                System.out.println("Sort control not found, skipping UI sort validation");
+                Log.info("Sort control not found, skipping UI sort validation");
             }
 
-            int maxPrice = sortedFlights.get(0).getPrice() + 5000;
-            List<FlightInfo> filteredFlights = pricedFlights.stream()
-                    .filter(flight -> flight.getPrice() > 0 && flight.getPrice() <= maxPrice)
-                    .collect(Collectors.toList());
-            Assert.assertTrue(filteredFlights.size() > 0, "No flights found under the price filter");
-            System.out.println("Flights under price filter (<= INR " + maxPrice + "): " + filteredFlights.size());
+            int maxPrice = cheapest.getPrice() + 5000;
+            int[] filteredRows = pricedFlights.rowsInPriceRange(1, maxPrice);
+            Assert.assertTrue(filteredRows.length > 0, "No flights found under the price filter");
+            Log.info("Flights under price filter (<= INR " + maxPrice + "): " + filteredRows.length);
 
             String screenshotPath = ScreenshotUtils.takeScreenshot(driver, "results");
-            System.out.println("Screenshot saved to: " + screenshotPath);
+            Log.info("Screenshot saved to: " + screenshotPath);
 
             String originalWindow = driver.getWindowHandle();
             driver.switchTo().newWindow(WindowType.TAB);
@@ -158,11 +151,33 @@ public class FlightSearchTest extends BaseTest {
             driver.close();
             driver.switchTo().window(originalWindow);
         } catch (Exception e) {
-            System.out.println("Test failed: " + e.getMessage());
+            Log.error("Test failed: " + e.getMessage());
             throw e;
         }
     }
 
+    // Keeps every priced result, not just the cheapest, so fares can be compared across runs
+    private void recordFareHistory(String fromCode, String toCode, LocalDate departureDate, FlightResultSet flights) {
+        if (!ConfigReader.getBooleanProperty("fareHistory", true)) {
+            return;
+        }
+        try {
+            FareHistoryStore history = FareHistoryStore.shared();
+            Instant now = Instant.now();
+            List<FareHistoryStore.Observation> observations = new ArrayList<>();
+            for (int row = 0; row < flights.size(); row++) {
+                observations.add(new FareHistoryStore.Observation(now, fromCode, toCode, departureDate, flights.price(row),
+                        flights.departureMinutes(row), flights.arrivalMinutes(row), flights.airline(row)));
+            }
+            history.appendAll(observations);
+            FareHistoryStore.Observation weekLow = history.cheapest(fromCode, toCode, departureDate, now.minus(Duration.ofDays(7)));
+            Log.info("Recorded " + observations.size() + " fares; cheapest " + fromCode + "->" + toCode + " for "
+                    + departureDate + " over the last 7 days: " + weekLow);
+        } catch (RuntimeException e) {
+            Log.warn("Fare history not recorded: " + e.getMessage());
+        }
+    }
+
     private boolean isSortedAscending(List<Integer> values) {
         for (int i = 1; i < values.size(); i++) {
             if (values.get(i) < values.get(i - 1)) {
@@ -179,28 +194,28 @@ public class FlightSearchTest extends BaseTest {
         String year = String.valueOf(departureDate.getYear());
         String date = day + month + year; // ddMMyyyy format
         
-        System.out.println("Building URL with date: " + departureDate + " -> " + date);
+        Log.debug(() -> "Building URL with date: " + departureDate + " -> " + date);
         return "https://www.ixigo.com/search/result/flight?from=" + fromCode
                 + "&to=" + toCode
                 + "&date=" + date
                 + "&adults=1&children=0&infants=0&class=e&source=Search%20Form";
     }
 
-    private String resolveCityCode(String city, String fallback) {
-        if (city == null) {
-            return fallback;
-        }
-        String normalized = city.trim().toLowerCase();
-        if (normalized.contains("bengaluru") || normalized.contains("bangalore")) {
-            return "BLR";
-        }
-        if (normalized.contains("delhi")) {
-            return "DEL";
+    private String resolveCityCode(String city) {
+        AirportIndex.Airport airport = AirportIndex.shared().resolve(city);
+        if (airport == null) {
+            return null;
         }
-        if (normalized.contains("mumbai")) {
-            return "BOM";
+        Log.debug(() -> "Resolved '" + city + "' to " + airport);
+        return airport.getCode();
+    }
+
+    private String codeOrFallback(String city, String code, String fallback) {
+        if (code == null) {
+            Log.warn("No airport found for '" + city + "', using " + fallback);
+            return fallback;
         }
-        return fallback;
+        return code;
     }
 
     private String getPropertyOrDefault(String key, String defaultValue) {
@@ -0,0 +1,65 @@
+package tests;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import pages.ResultsSnapshotParser;
+import pages.SearchResultsPage.FlightInfo;
+import utils.HtmlDocument;
+import utils.ParallelParser;
+
+public class ResultsSnapshotParserTest {
+
+    @Test
+    public void extractsVisibleCardsFromSavedResultsPage() throws IOException {
+        List<FlightInfo> flights = ResultsSnapshotParser.parse(resource("corpus/results-snapshot.html"));
+
+        Assert.assertEquals(flights.size(), 3, "hidden placeholder card must be skipped: " + flights);
+        assertFlight(flights.get(0), "IndiGo", 5499, "06:05", "08:50");
+        assertFlight(flights.get(1), "Air India", 4899, "21:30", "00:20");
+        assertFlight(flights.get(2), "Akasa Air", 7250, "14:10", "16:55");
+    }
+
+    @Test
+    public void toleratesUnclosedTagsAndDecodesEntities() {
+        HtmlDocument document = HtmlDocument.parse("<ul class=list><li>One &amp; two<li data-x='a b'>&#8377;1,200<br>next</ul><p>after");
+
+        Assert.assertEquals(document.select("ul > li").size(), 2);
+        Assert.assertEquals(document.select("li[data-x~=b]").get(0).text(), "₹1,200\nnext");
+        Assert.assertEquals(document.select(".list li").get(0).text(), "One & two");
+        Assert.assertEquals(document.select("p").get(0).text(), "after");
+        Assert.assertTrue(document.select("li:first-child").isEmpty(), "pseudo-classes are not supported offline");
+    }
+
+    @Test
+    public void parallelParsingKeepsOnPageOrder() {
+        List<Integer> cards = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            cards.add(i);
+        }
+        Function<Integer, Integer> parser = card -> card % 7 == 0 ? null : card * 2;
+
+        Assert.assertEquals(ParallelParser.map(cards, parser, true), ParallelParser.map(cards, parser, false));
+    }
+
+    private void assertFlight(FlightInfo flight, String airline, int price, String departure, String arrival) {
+        Assert.assertEquals(flight.getAirline(), airline, flight.toString());
+        Assert.assertEquals(flight.getPrice(), price, flight.toString());
+        Assert.assertEquals(flight.getDepartureTime(), departure, flight.toString());
+        Assert.assertEquals(flight.getArrivalTime(), arrival, flight.toString());
+    }
+
+    private String resource(String name) throws IOException {
+        try (InputStream input = getClass().getClassLoader().getResourceAsStream(name)) {
+            Assert.assertNotNull(input, name + " missing from test resources");
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
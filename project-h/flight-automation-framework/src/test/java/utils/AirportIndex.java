@@ -0,0 +1,347 @@
+package utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+// City/airport lookup over the bundled airports.tsv: IATA codes, city names, aliases and old names
+// (Bombay, Madras) resolve to an airport without touching the browser. Keys are normalised
+// (lower case, accents and punctuation dropped) and kept in a trie flattened into parallel arrays:
+// children are first-child/next-sibling chains sorted by character, and each node's postings are a
+// slice of one int array. Airport names are also indexed from every significant word, so "Shivaji"
+// finds BOM. Matches rank by how they matched (code, city, alias, airport name) and then by row
+// order, which is busiest first.
+public final class AirportIndex {
+    private static final String RESOURCE = "airports.tsv";
+    private static final int CODE = 0;
+    private static final int CITY = 1;
+    private static final int ALIAS = 2;
+    private static final int NAME = 3;
+    private static final int KINDS = 4;
+    private static final List<String> GENERIC_WORDS = Arrays.asList("international", "airport", "domestic");
+    private static volatile AirportIndex shared;
+
+    private final List<Airport> airports;
+    private final Map<String, Airport> byCode = new HashMap<>();
+    private final char[] label;
+    private final int[] firstChild;
+    private final int[] nextSibling;
+    private final int[] postingStart;
+    private final int[] postings;
+
+    private AirportIndex(List<Airport> airports) {
+        this.airports = airports;
+        Node root = new Node();
+        for (int i = 0; i < airports.size(); i++) {
+            Airport airport = airports.get(i);
+            byCode.put(airport.code, airport);
+            root.insert(normalize(airport.code), i * KINDS + CODE);
+            root.insert(normalize(airport.city), i * KINDS + CITY);
+            for (String alias : airport.aliases) {
+                root.insert(normalize(alias), i * KINDS + ALIAS);
+            }
+            String[] words = normalize(airport.name).split(" ");
+            for (int w = 0; w < words.length; w++) {
+                if (!GENERIC_WORDS.contains(words[w])) {
+                    root.insert(String.join(" ", Arrays.copyOfRange(words, w, words.length)), i * KINDS + NAME);
+                }
+            }
+        }
+        int nodes = root.count();
+        label = new char[nodes];
+        firstChild = new int[nodes];
+        nextSibling = new int[nodes];
+        postingStart = new int[nodes + 1];
+        postings = new int[root.postingCount()];
+        flatten(root, 0, new int[] {1, 0});
+        postingStart[nodes] = postings.length;
+    }
+
+    // The index bundled on the test classpath
+    public static AirportIndex shared() {
+        AirportIndex current = shared;
+        if (current == null) {
+            synchronized (AirportIndex.class) {
+                current = shared;
+                if (current == null) {
+                    current = load(RESOURCE);
+                    shared = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    static AirportIndex load(String resource) {
+        try (InputStream input = AirportIndex.class.getClassLoader().getResourceAsStream(resource)) {
+            if (input == null) {
+                throw new IllegalStateException(resource + " not found in classpath");
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            List<Airport> airports = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\t", -1);
+                if (fields.length != 4) {
+                    throw new IllegalStateException("Malformed " + resource + " line: " + line);
+                }
+                List<String> aliases = new ArrayList<>();
+                for (String alias : fields[3].split(",")) {
+                    if (!alias.trim().isEmpty()) {
+                        aliases.add(alias.trim());
+                    }
+                }
+                airports.add(new Airport(fields[0].trim().toUpperCase(Locale.ENGLISH), fields[1].trim(), fields[2].trim(), aliases));
+            }
+            return new AirportIndex(Collections.unmodifiableList(airports));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + resource, e);
+        }
+    }
+
+    public int size() {
+        return airports.size();
+    }
+
+    public Airport byCode(String code) {
+        return code == null ? null : byCode.get(code.trim().toUpperCase(Locale.ENGLISH));
+    }
+
+    // Best airport for free text such as "Bangalore", "bombay", "Mumbai, India", "BLR" or "Chenai"; null if nothing is close
+    public Airport resolve(String query) {
+        if (query == null) {
+            return null;
+        }
+        Airport code = query.trim().length() == 3 ? byCode(query) : null;
+        if (code != null) {
+            return code;
+        }
+        // "Mumbai, Maharashtra" or "Bengaluru (BLR)": retry with the leading segment
+        for (String candidate : new String[] {query, query.split("[,(/-]")[0]}) {
+            String key = normalize(candidate);
+            if (key.length() < 3) {
+                continue;
+            }
+            List<Airport> matches = complete(key, 1);
+            if (!matches.isEmpty()) {
+                return matches.get(0);
+            }
+            List<Airport> close = fuzzy(key, key.length() >= 8 ? 2 : 1, 1);
+            if (!close.isEmpty()) {
+                return close.get(0);
+            }
+        }
+        return null;
+    }
+
+    // Exact key matches first, then keys that start with the prefix
+    public List<Airport> complete(String prefix, int limit) {
+        String key = normalize(prefix);
+        int node = 0;
+        for (int i = 0; i < key.length() && node >= 0; i++) {
+            node = child(node, key.charAt(i));
+        }
+        Map<Integer, Integer> scores = new HashMap<>();
+        if (node >= 0 && !key.isEmpty()) {
+            collect(node, 0, scores);
+            collectSubtree(firstChild[node], KINDS, scores);
+        }
+        return ranked(scores, limit);
+    }
+
+    // Keys within maxEdits insertions, deletions or substitutions of the query, closest first
+    public List<Airport> fuzzy(String query, int maxEdits, int limit) {
+        String key = normalize(query);
+        Map<Integer, Integer> scores = new HashMap<>();
+        if (!key.isEmpty()) {
+            int[] row = new int[key.length() + 1];
+            for (int i = 0; i <= key.length(); i++) {
+                row[i] = i;
+            }
+            for (int child = firstChild[0]; child > 0; child = nextSibling[child]) {
+                fuzzy(child, key, row, maxEdits, scores);
+            }
+        }
+        return ranked(scores, limit);
+    }
+
+    // Whether a suggestion's text names the airport: its code as a word, or its city or an alias
+    public boolean describes(String text, Airport airport) {
+        String padded = " " + normalize(text) + " ";
+        if (padded.contains(" " + normalize(airport.code) + " ")) {
+            return true;
+        }
+        for (String name : airport.names()) {
+            if (padded.contains(" " + normalize(name) + " ")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String stripped = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return stripped.toLowerCase(Locale.ENGLISH).replaceAll("[^a-z0-9]+", " ").trim();
+    }
+
+    private int child(int node, char c) {
+        for (int child = firstChild[node]; child > 0; child = nextSibling[child]) {
+            if (label[child] == c) {
+                return child;
+            }
+            if (label[child] > c) {
+                break;
+            }
+        }
+        return -1;
+    }
+
+    private void collect(int node, int tier, Map<Integer, Integer> scores) {
+        for (int p = postingStart[node]; p < postingStart[node + 1]; p++) {
+            int airport = postings[p] / KINDS;
+            int score = tier + postings[p] % KINDS;
+            scores.merge(airport, score, Math::min);
+        }
+    }
+
+    private void collectSubtree(int node, int tier, Map<Integer, Integer> scores) {
+        for (; node > 0; node = nextSibling[node]) {
+            collect(node, tier, scores);
+            collectSubtree(firstChild[node], tier, scores);
+        }
+    }
+
+    private void fuzzy(int node, String key, int[] previous, int maxEdits, Map<Integer, Integer> scores) {
+        int[] row = new int[previous.length];
+        row[0] = previous[0] + 1;
+        int best = row[0];
+        for (int i = 1; i < row.length; i++) {
+            int substitution = previous[i - 1] + (key.charAt(i - 1) == label[node] ? 0 : 1);
+            row[i] = Math.min(substitution, Math.min(row[i - 1] + 1, previous[i] + 1));
+            best = Math.min(best, row[i]);
+        }
+        if (row[row.length - 1] <= maxEdits) {
+            collect(node, row[row.length - 1] * KINDS, scores);
+        }
+        if (best > maxEdits) {
+            return;
+        }
+        for (int child = firstChild[node]; child > 0; child = nextSibling[child]) {
+            fuzzy(child, key, row, maxEdits, scores);
+        }
+    }
+
+    private List<Airport> ranked(Map<Integer, Integer> scores, int limit) {
+        List<Integer> order = new ArrayList<>(scores.keySet());
+        order.sort((a, b) -> scores.get(a).equals(scores.get(b)) ? Integer.compare(a, b) : Integer.compare(scores.get(a), scores.get(b)));
+        List<Airport> result = new ArrayList<>();
+        for (int i = 0; i < order.size() && i < limit; i++) {
+            result.add(airports.get(order.get(i)));
+        }
+        return result;
+    }
+
+    // Pre-order numbering keeps each subtree contiguous; next[0] is the next free node, next[1] the next free posting
+    private void flatten(Node node, int index, int[] next) {
+        postingStart[index] = next[1];
+        for (int posting : node.postings) {
+            postings[next[1]++] = posting;
+        }
+        int previous = 0;
+        for (Map.Entry<Character, Node> entry : node.children.entrySet()) {
+            int child = next[0]++;
+            label[child] = entry.getKey();
+            if (previous == 0) {
+                firstChild[index] = child;
+            } else {
+                nextSibling[previous] = child;
+            }
+            previous = child;
+            flatten(entry.getValue(), child, next);
+        }
+    }
+
+    private static final class Node {
+        private final TreeMap<Character, Node> children = new TreeMap<>();
+        private final List<Integer> postings = new ArrayList<>();
+
+        private void insert(String key, int posting) {
+            if (key.isEmpty()) {
+                return;
+            }
+            Node node = this;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), ignored -> new Node());
+            }
+            if (!node.postings.contains(posting)) {
+                node.postings.add(posting);
+            }
+        }
+
+        private int count() {
+            int count = 1;
+            for (Node child : children.values()) {
+                count += child.count();
+            }
+            return count;
+        }
+
+        private int postingCount() {
+            int count = postings.size();
+            for (Node child : children.values()) {
+                count += child.postingCount();
+            }
+            return count;
+        }
+    }
+
+    public static final class Airport {
+        private final String code;
+        private final String city;
+        private final String name;
+        private final List<String> aliases;
+
+        private Airport(String code, String city, String name, List<String> aliases) {
+            this.code = code;
+            this.city = city;
+            this.name = name;
+            this.aliases = Collections.unmodifiableList(aliases);
+        }
+
+        public String getCode() { return code; }
+        public String getCity() { return city; }
+        public String getName() { return name; }
+        public List<String> getAliases() { return aliases; }
+
+        // City first, then aliases: every name a typeahead might show for this airport
+        public List<String> names() {
+            List<String> names = new ArrayList<>();
+            names.add(city);
+            names.addAll(aliases);
+            return names;
+        }
+
+        @Override
+        public String toString() {
+            return code + " (" + city + ")";
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package utils;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+
+public final class CdpSession {
+    private CdpSession() {
+    }
+
+    public static boolean isSupported(WebDriver driver) {
+        return driver instanceof HasDevTools;
+    }
+
+    public static DevTools devTools(WebDriver driver) {
+        if (!isSupported(driver)) {
+            throw new IllegalArgumentException("Driver does not expose Chrome DevTools: " + driver.getClass().getName());
+        }
+        DevTools devTools = ((HasDevTools) driver).getDevTools();
+        devTools.createSessionIfThereIsNotOne();
+        return devTools;
+    }
+
+    // Raw, version-independent CDP calls so the framework isn't tied to one selenium-devtools-vNNN module
+    public static Map<String, Object> send(WebDriver driver, String method, Map<String, Object> params) {
+        Map<String, Object> result = devTools(driver).send(new Command<Map<String, Object>>(
+                method, params == null ? Collections.emptyMap() : params, Json.MAP_TYPE));
+        return result == null ? Collections.emptyMap() : result;
+    }
+
+    public static void sendAsync(WebDriver driver, String method, Map<String, Object> params) {
+        devTools(driver).send(new Command<Void>(method, params == null ? Collections.emptyMap() : params).doesNotSendResponse());
+    }
+
+    public static void listen(WebDriver driver, String event, Consumer<Map<String, Object>> handler) {
+        devTools(driver).addListener(new Event<Map<String, Object>>(event, input -> input.read(Json.MAP_TYPE)), params -> {
+            try {
+                handler.accept(params);
+            } catch (RuntimeException e) {
+                Log.warn("CDP listener for " + event + " failed: " + e.getMessage());
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> child(Map<String, Object> params, String key) {
+        Object value = params == null ? null : params.get(key);
+        return value instanceof Map ? (Map<String, Object>) value : Collections.emptyMap();
+    }
+
+    public static String string(Map<String, Object> params, String key) {
+        Object value = params == null ? null : params.get(key);
+        return value == null ? "" : String.valueOf(value);
+    }
+
+    public static long number(Map<String, Object> params, String key) {
+        Object value = params == null ? null : params.get(key);
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+}
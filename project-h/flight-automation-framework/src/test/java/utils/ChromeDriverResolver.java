@@ -0,0 +1,218 @@
+package utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.openqa.selenium.chrome.ChromeDriverService;
+import org.openqa.selenium.net.PortProber;
+
+import io.github.bonigarcia.wdm.WebDriverManager;
+
+public final class ChromeDriverResolver {
+    private static final String CURRENT_FILE = "current";
+    private static final String CHECKSUM_SUFFIX = ".sha256";
+
+    private static volatile File resolvedDriver;
+    private static volatile SharedChromeDriverService sharedService;
+
+    private ChromeDriverResolver() {
+    }
+
+    public static File resolve() {
+        File driver = resolvedDriver;
+        if (driver != null) {
+            return driver;
+        }
+        synchronized (ChromeDriverResolver.class) {
+            if (resolvedDriver == null) {
+                long start = System.nanoTime();
+                resolvedDriver = resolveOnce();
+                System.setProperty(ChromeDriverService.CHROME_DRIVER_EXE_PROPERTY, resolvedDriver.getAbsolutePath());
+                Log.info("Resolved chromedriver " + resolvedDriver + " in "
+                        + Duration.ofNanos(System.nanoTime() - start).toMillis() + " ms");
+            }
+            return resolvedDriver;
+        }
+    }
+
+    public static ChromeDriverService driverService() {
+        File driver = resolve();
+        if (!ConfigReader.getBooleanProperty("shareDriverService", true)) {
+            return new ChromeDriverService.Builder().usingDriverExecutable(driver).usingAnyFreePort().build();
+        }
+        SharedChromeDriverService service = sharedService;
+        if (service != null) {
+            return service;
+        }
+        synchronized (ChromeDriverResolver.class) {
+            if (sharedService == null) {
+                try {
+                    int port = PortProber.findFreePort();
+                    SharedChromeDriverService created = new SharedChromeDriverService(driver, port);
+                    created.start();
+                    DriverFactory.registerShutdownHook();
+                    sharedService = created;
+                    Log.info("Started shared chromedriver service on port " + port);
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to start shared chromedriver service", e);
+                }
+            }
+            return sharedService;
+        }
+    }
+
+    static void stopSharedService() {
+        SharedChromeDriverService service = sharedService;
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    private static File resolveOnce() {
+        String explicit = System.getProperty(ChromeDriverService.CHROME_DRIVER_EXE_PROPERTY);
+        if (explicit == null || explicit.trim().isEmpty()) {
+            explicit = ConfigReader.getProperty("chromeDriverPath");
+        }
+        if (explicit != null && !explicit.trim().isEmpty()) {
+            File file = new File(explicit.trim());
+            if (!file.canExecute()) {
+                throw new IllegalStateException("Configured chromedriver is not executable: " + file);
+            }
+            return file;
+        }
+
+        boolean offline = isOffline();
+        Path cacheDir = resolveCacheDir();
+        Path cached = readVerifiedCacheEntry(cacheDir, offline);
+        if (cached != null) {
+            return cached.toFile();
+        }
+        if (offline) {
+            throw new IllegalStateException("driverOffline=true but no verified chromedriver is cached in " + cacheDir
+                    + "; run once with network access or set chromeDriverPath");
+        }
+
+        WebDriverManager manager = WebDriverManager.chromedriver();
+        manager.setup();
+        String downloadedPath = manager.getDownloadedDriverPath();
+        if (downloadedPath == null) {
+            throw new IllegalStateException("WebDriverManager did not resolve a chromedriver binary");
+        }
+        String version = manager.getDownloadedDriverVersion();
+        Path stored = storeInCache(cacheDir, Paths.get(downloadedPath), version == null ? "unknown" : version);
+        return stored != null ? stored.toFile() : new File(downloadedPath);
+    }
+
+    private static Path readVerifiedCacheEntry(Path cacheDir, boolean offline) {
+        Path current = cacheDir.resolve(CURRENT_FILE);
+        if (!Files.isRegularFile(current)) {
+            return null;
+        }
+        try {
+            long ttlMillis = Duration.ofHours(ConfigReader.getIntProperty("driverCacheTtlHours", 24)).toMillis();
+            if (!offline && System.currentTimeMillis() - Files.getLastModifiedTime(current).toMillis() > ttlMillis) {
+                Log.info("Cached chromedriver is older than driverCacheTtlHours, re-resolving");
+                return null;
+            }
+            String version = new String(Files.readAllBytes(current), StandardCharsets.UTF_8).trim();
+            Path binary = cacheDir.resolve(version).resolve(driverFileName());
+            Path checksumFile = cacheDir.resolve(version).resolve(driverFileName() + CHECKSUM_SUFFIX);
+            if (!Files.isRegularFile(binary) || !Files.isRegularFile(checksumFile)) {
+                return null;
+            }
+            String expected = new String(Files.readAllBytes(checksumFile), StandardCharsets.UTF_8).trim();
+            if (!expected.equalsIgnoreCase(sha256(binary))) {
+                Log.warn("Cached chromedriver checksum mismatch, ignoring " + binary);
+                return null;
+            }
+            binary.toFile().setExecutable(true);
+            return binary;
+        } catch (IOException e) {
+            Log.warn("Unable to read chromedriver cache: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static Path storeInCache(Path cacheDir, Path source, String version) {
+        try {
+            Path versionDir = cacheDir.resolve(version);
+            Files.createDirectories(versionDir);
+            Path binary = versionDir.resolve(driverFileName());
+            Path temp = versionDir.resolve(driverFileName() + ".tmp");
+            Files.copy(source, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, binary, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            binary.toFile().setExecutable(true);
+            Files.write(versionDir.resolve(driverFileName() + CHECKSUM_SUFFIX), sha256(binary).getBytes(StandardCharsets.UTF_8));
+            Files.write(cacheDir.resolve(CURRENT_FILE), version.getBytes(StandardCharsets.UTF_8));
+            return binary;
+        } catch (IOException e) {
+            Log.warn("Unable to cache chromedriver " + version + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static String sha256(Path file) throws IOException {
+        try (InputStream input = Files.newInputStream(file)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static Path resolveCacheDir() {
+        String configured = ConfigReader.getProperty("driverCacheDir");
+        if (configured != null && !configured.trim().isEmpty()) {
+            return Paths.get(configured.trim());
+        }
+        return Paths.get(System.getProperty("user.home"), ".cache", "flight-automation", "chromedriver");
+    }
+
+    private static boolean isOffline() {
+        String value = System.getProperty("driverOffline");
+        if (value == null || value.trim().isEmpty()) {
+            return ConfigReader.getBooleanProperty("driverOffline", false);
+        }
+        return "true".equalsIgnoreCase(value.trim());
+    }
+
+    private static String driverFileName() {
+        return System.getProperty("os.name", "").toLowerCase(Locale.ENGLISH).contains("win") ? "chromedriver.exe" : "chromedriver";
+    }
+
+    private static final class SharedChromeDriverService extends ChromeDriverService {
+        private SharedChromeDriverService(File executable, int port) throws IOException {
+            super(executable, port, Duration.ofSeconds(20), List.of("--port=" + port), Collections.<String, String>emptyMap());
+        }
+
+        // ChromeDriver stops its service on quit(); the shared process must outlive individual sessions
+        @Override
+        public void stop() {
+        }
+
+        private void shutdown() {
+            super.stop();
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+public final class ChromeProfileManager {
+    private static final Path TARGET_DIR = Paths.get("target");
+    private static final Path TEMPLATE_DIR = TARGET_DIR.resolve("chrome-profile-template");
+    private static final Path CLONE_ROOT = TARGET_DIR.resolve("chrome-profiles");
+    private static final String READY_MARKER = ".template-ready";
+    private static final String LEGACY_PREFIX = "chrome-profile-";
+
+    // Lock files must never be cloned (Chrome would think the profile is in use) and
+    // caches are cheap to rebuild but dominate the template size.
+    private static final Set<String> EXCLUDED_NAMES = new HashSet<>(Arrays.asList(
+            "SingletonLock", "SingletonSocket", "SingletonCookie", "lockfile", "LOCK",
+            "Cache", "Code Cache", "GPUCache", "GrShaderCache", "GraphiteDawnCache", "ShaderCache",
+            "DawnCache", "Crashpad", "CacheStorage", "ScriptCache", "component_crx_cache"
+    ));
+
+    private static final AtomicBoolean JANITOR_RAN = new AtomicBoolean(false);
+    private static volatile Boolean copyOnWriteSupported;
+
+    private ChromeProfileManager() {
+    }
+
+    public static synchronized Path cloneTemplate(Consumer<Path> warmer) {
+        ensureTemplate(warmer);
+        Path clone = CLONE_ROOT.resolve("session-" + UUID.randomUUID());
+        long start = System.nanoTime();
+        try {
+            Files.createDirectories(CLONE_ROOT);
+            if (!copyOnWrite(TEMPLATE_DIR, clone)) {
+                copyTree(TEMPLATE_DIR, clone);
+            }
+        } catch (IOException e) {
+            Log.warn("Profile clone failed, falling back to an empty profile: " + e.getMessage());
+            deleteProfile(clone);
+            return newEmptyProfile();
+        }
+        Log.info("Cloned profile template into " + clone + " in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        return clone;
+    }
+
+    public static Path newEmptyProfile() {
+        Path profile = CLONE_ROOT.resolve("session-" + UUID.randomUUID());
+        try {
+            Files.createDirectories(profile);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create Chrome profile directory " + profile, e);
+        }
+        return profile;
+    }
+
+    public static void cleanStaleProfiles() {
+        if (!JANITOR_RAN.compareAndSet(false, true)) {
+            return;
+        }
+        long minAgeMillis = Duration.ofMinutes(ConfigReader.getIntProperty("profileCloneMinAgeMinutes", 10)).toMillis();
+        int removed = 0;
+        removed += cleanDirectory(CLONE_ROOT, "session-", minAgeMillis);
+        removed += cleanDirectory(TARGET_DIR, LEGACY_PREFIX, minAgeMillis);
+        if (removed > 0) {
+            Log.info("Profile janitor removed " + removed + " stale Chrome profile(s)");
+        }
+    }
+
+    public static void deleteProfile(Path profile) {
+        if (profile == null || !Files.exists(profile, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        try {
+            Files.walkFileTree(profile, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    Files.deleteIfExists(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                    Files.deleteIfExists(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            Log.warn("Failed to delete Chrome profile " + profile + ": " + e.getMessage());
+        }
+    }
+
+    private static void ensureTemplate(Consumer<Path> warmer) {
+        Path marker = TEMPLATE_DIR.resolve(READY_MARKER);
+        long maxAgeMillis = Duration.ofHours(ConfigReader.getIntProperty("profileTemplateMaxAgeHours", 24)).toMillis();
+        try {
+            if (Files.exists(marker)
+                    && System.currentTimeMillis() - Files.getLastModifiedTime(marker).toMillis() < maxAgeMillis) {
+                return;
+            }
+        } catch (IOException ignored) {
+        }
+
+        Log.info("Building Chrome profile template in " + TEMPLATE_DIR);
+        deleteProfile(TEMPLATE_DIR);
+        try {
+            Files.createDirectories(TEMPLATE_DIR);
+            warmer.accept(TEMPLATE_DIR);
+            stripExcluded(TEMPLATE_DIR);
+            Files.write(marker, String.valueOf(System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException | RuntimeException e) {
+            Log.warn("Profile template warm-up failed, using an empty template: " + e.getMessage());
+            try {
+                deleteProfile(TEMPLATE_DIR);
+                Files.createDirectories(TEMPLATE_DIR);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static boolean copyOnWrite(Path source, Path destination) {
+        if (Boolean.FALSE.equals(copyOnWriteSupported)) {
+            return false;
+        }
+        String os = System.getProperty("os.name", "").toLowerCase(Locale.ENGLISH);
+        List<String> command;
+        if (os.contains("linux")) {
+            command = Arrays.asList("cp", "-a", "--reflink=always", source.toAbsolutePath().toString(),
+                    destination.toAbsolutePath().toString());
+        } else if (os.contains("mac")) {
+            command = Arrays.asList("cp", "-c", "-R", source.toAbsolutePath().toString(),
+                    destination.toAbsolutePath().toString());
+        } else {
+            copyOnWriteSupported = false;
+            return false;
+        }
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+            boolean ok = process.waitFor(60, TimeUnit.SECONDS) && process.exitValue() == 0;
+            if (!ok) {
+                process.destroyForcibly();
+                deleteProfile(destination);
+                Log.info("Copy-on-write clone not supported here, using regular copies");
+            }
+            copyOnWriteSupported = ok;
+            return ok;
+        } catch (IOException e) {
+            copyOnWriteSupported = false;
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void copyTree(Path source, Path destination) throws IOException {
+        Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (!dir.equals(source) && EXCLUDED_NAMES.contains(dir.getFileName().toString())) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                Files.createDirectories(destination.resolve(source.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (!EXCLUDED_NAMES.contains(file.getFileName().toString()) && !attrs.isSymbolicLink()) {
+                    Files.copy(file, destination.resolve(source.relativize(file).toString()),
+                            StandardCopyOption.COPY_ATTRIBUTES);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static void stripExcluded(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.filter(path -> !path.equals(root))
+                    .filter(path -> EXCLUDED_NAMES.contains(path.getFileName().toString()))
+                    .forEach(ChromeProfileManager::deleteProfile);
+        }
+    }
+
+    private static int cleanDirectory(Path parent, String prefix, long minAgeMillis) {
+        if (!Files.isDirectory(parent)) {
+            return 0;
+        }
+        int removed = 0;
+        long now = System.currentTimeMillis();
+        try (Stream<Path> children = Files.list(parent)) {
+            for (Path child : (Iterable<Path>) children::iterator) {
+                String name = child.getFileName().toString();
+                if (!name.startsWith(prefix) || child.equals(TEMPLATE_DIR) || !Files.isDirectory(child)) {
+                    continue;
+                }
+                try {
+                    if (now - Files.getLastModifiedTime(child).toMillis() < minAgeMillis || isLockedByLiveChrome(child)) {
+                        continue;
+                    }
+                } catch (IOException e) {
+                    continue;
+                }
+                deleteProfile(child);
+                removed++;
+            }
+        } catch (IOException e) {
+            Log.warn("Profile janitor could not scan " + parent + ": " + e.getMessage());
+        }
+        return removed;
+    }
+
+    private static boolean isLockedByLiveChrome(Path profile) {
+        // Chrome's SingletonLock is a symlink to "<hostname>-<pid>" while the browser is running
+        Path lock = profile.resolve("SingletonLock");
+        if (!Files.isSymbolicLink(lock)) {
+            return false;
+        }
+        try {
+            String target = Files.readSymbolicLink(lock).toString();
+            int dash = target.lastIndexOf('-');
+            long pid = Long.parseLong(target.substring(dash + 1));
+            return ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false);
+        } catch (IOException | RuntimeException e) {
+            return true;
+        }
+    }
+}
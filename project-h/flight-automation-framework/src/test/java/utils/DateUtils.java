@@ -3,12 +3,19 @@ package utils;
 import java.time.LocalDate;
 import java.time.Month;
 import java.time.Year;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public final class DateUtils {
+    // "January 2026", "Jan, 2026", "Sept '26"; a bare two-digit year is rejected so "Jan 26" stays a day
+    private static final Pattern MONTH_HEADER = Pattern.compile("([A-Za-z]{3,9})[\\s,]*(\\d{4}|['\u2019]\\d{2})");
+
     private DateUtils() {
     }
 
@@ -79,6 +86,42 @@ public final class DateUtils {
         return date.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
     }
 
+    // Month and year of a calendar header, or null when the text is not one
+    public static YearMonth parseMonthHeader(String text) {
+        if (text == null) {
+            return null;
+        }
+        Matcher matcher = MONTH_HEADER.matcher(text.trim());
+        if (!matcher.matches()) {
+            return null;
+        }
+        String name = matcher.group(1).toUpperCase(Locale.ENGLISH);
+        for (Month month : Month.values()) {
+            if (month.name().startsWith(name)) {
+                String year = matcher.group(2);
+                return YearMonth.of(year.length() == 4 ? Integer.parseInt(year) : 2000 + Integer.parseInt(year.substring(1)), month);
+            }
+        }
+        return null;
+    }
+
+    // Months to page from the visible range to the target: 0 inside it, negative when it lies earlier
+    public static int monthOffset(List<YearMonth> visible, YearMonth target) {
+        YearMonth first = visible.get(0);
+        YearMonth last = visible.get(0);
+        for (YearMonth month : visible) {
+            first = month.isBefore(first) ? month : first;
+            last = month.isAfter(last) ? month : last;
+        }
+        if (target.isBefore(first)) {
+            return (int) ChronoUnit.MONTHS.between(first, target);
+        }
+        if (target.isAfter(last)) {
+            return (int) ChronoUnit.MONTHS.between(last, target);
+        }
+        return 0;
+    }
+
     private static Month parseMonth(String monthName) {
         String normalized = monthName.trim().toUpperCase(Locale.ENGLISH);
         if (normalized.matches("\\d{1,2}")) {
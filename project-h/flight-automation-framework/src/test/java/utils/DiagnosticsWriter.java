@@ -0,0 +1,221 @@
+package utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import org.openqa.selenium.WebDriver;
+
+// Page-source dumps go through here instead of being written on the test thread. The caller only
+// pays for getPageSource(); hashing, gzip and disk I/O happen on one background thread. Snapshots
+// are stored once per content hash under target/diagnostics/objects, and each test keeps an index
+// of its last diagnosticsRingSize snapshots. Objects no ring refers to any more are deleted. The
+// rings and reference counts are rebuilt from the index files left by earlier runs before the first
+// write, and objects none of them mention are swept, so counts survive across JVMs.
+public final class DiagnosticsWriter {
+    private static final Path ROOT = Paths.get("target", "diagnostics");
+    private static final Path OBJECTS = ROOT.resolve("objects");
+    private static final int RING_SIZE = Math.max(1, ConfigReader.getIntProperty("diagnosticsRingSize", 5));
+    private static final int QUEUE_CAPACITY = 16;
+
+    private static final Map<String, Deque<Snapshot>> RINGS = new HashMap<>();
+    private static final Map<String, Integer> REFERENCES = new HashMap<>();
+    private static final AtomicInteger DROPPED = new AtomicInteger();
+    // Only touched on the writer thread, like RINGS and REFERENCES
+    private static boolean restored;
+    private static final ThreadPoolExecutor WRITER = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+                Thread thread = new Thread(runnable, "diagnostics-writer");
+                thread.setDaemon(true);
+                return thread;
+            }, (task, executor) -> DROPPED.incrementAndGet());
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(DiagnosticsWriter::flush, "diagnostics-flush"));
+    }
+
+    private DiagnosticsWriter() {
+    }
+
+    public static void capturePageSource(WebDriver driver, String label) {
+        String source;
+        String url;
+        try {
+            source = driver.getPageSource();
+            url = driver.getCurrentUrl();
+        } catch (RuntimeException e) {
+            Log.warn("Diagnostics capture '" + label + "' failed: " + e.getMessage());
+            return;
+        }
+        submit(TestContext.getTestName(), label, url, source);
+    }
+
+    // Never blocks: when the writer falls behind, the snapshot is dropped and counted instead
+    public static void submit(String testName, String label, String url, String content) {
+        Instant capturedAt = Instant.now();
+        WRITER.execute(() -> write(testName, label, url, content, capturedAt));
+    }
+
+    public static void flush() {
+        WRITER.shutdown();
+        try {
+            WRITER.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (DROPPED.get() > 0) {
+            Log.warn("Diagnostics writer dropped " + DROPPED.get() + " snapshot(s) while busy");
+        }
+    }
+
+    private static void write(String testName, String label, String url, String content, Instant capturedAt) {
+        try {
+            restore();
+            byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+            String hash = sha256(bytes);
+            Path object = OBJECTS.resolve(hash + ".html.gz");
+            Files.createDirectories(OBJECTS);
+            if (!Files.exists(object)) {
+                Path temp = Files.createTempFile(OBJECTS, hash, ".tmp");
+                try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(temp))) {
+                    output.write(bytes);
+                }
+                Files.move(temp, object, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            Deque<Snapshot> ring = RINGS.computeIfAbsent(indexName(testName), ignored -> new ArrayDeque<>());
+            ring.addLast(new Snapshot(capturedAt, label, url, hash));
+            REFERENCES.merge(hash, 1, Integer::sum);
+            while (ring.size() > RING_SIZE) {
+                release(ring.removeFirst().hash);
+            }
+            writeIndex(indexName(testName), ring);
+            Log.info("Diagnostics '" + label + "' stored as " + object + " (" + bytes.length / 1024 + " KB raw)");
+        } catch (IOException | RuntimeException e) {
+            Log.warn("Failed to store diagnostics '" + label + "': " + e.getMessage());
+        }
+    }
+
+    // Reloads every ring from its index, counts the objects they mention and deletes the rest,
+    // including temp files and objects orphaned by a run that died between release and rewrite
+    private static void restore() throws IOException {
+        if (restored) {
+            return;
+        }
+        restored = true;
+        if (!Files.isDirectory(ROOT)) {
+            return;
+        }
+        try (DirectoryStream<Path> indexes = Files.newDirectoryStream(ROOT, "*.index")) {
+            for (Path index : indexes) {
+                String name = index.getFileName().toString();
+                Deque<Snapshot> ring = new ArrayDeque<>();
+                for (String line : Files.readAllLines(index, StandardCharsets.UTF_8)) {
+                    Snapshot snapshot = Snapshot.parse(line);
+                    if (snapshot != null) {
+                        ring.addLast(snapshot);
+                        REFERENCES.merge(snapshot.hash, 1, Integer::sum);
+                    }
+                }
+                RINGS.put(name.substring(0, name.length() - ".index".length()), ring);
+            }
+        }
+        if (!Files.isDirectory(OBJECTS)) {
+            return;
+        }
+        int swept = 0;
+        try (DirectoryStream<Path> objects = Files.newDirectoryStream(OBJECTS)) {
+            for (Path object : objects) {
+                String name = object.getFileName().toString();
+                String hash = name.endsWith(".html.gz") ? name.substring(0, name.length() - ".html.gz".length()) : null;
+                if (hash == null || !REFERENCES.containsKey(hash)) {
+                    Files.deleteIfExists(object);
+                    swept++;
+                }
+            }
+        }
+        if (swept > 0) {
+            Log.info("Diagnostics swept " + swept + " unreferenced object(s)");
+        }
+    }
+
+    private static void release(String hash) throws IOException {
+        int remaining = REFERENCES.merge(hash, -1, Integer::sum);
+        if (remaining <= 0) {
+            REFERENCES.remove(hash);
+            Files.deleteIfExists(OBJECTS.resolve(hash + ".html.gz"));
+        }
+    }
+
+    private static String indexName(String testName) {
+        return testName.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    private static void writeIndex(String name, Deque<Snapshot> ring) throws IOException {
+        Path index = ROOT.resolve(name + ".index");
+        try (Writer writer = Files.newBufferedWriter(index, StandardCharsets.UTF_8)) {
+            for (Snapshot snapshot : ring) {
+                writer.write(snapshot.capturedAt + "\t" + snapshot.label + "\t" + snapshot.url
+                        + "\tobjects/" + snapshot.hash + ".html.gz" + System.lineSeparator());
+            }
+        }
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(bytes)) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Snapshot {
+        private final Instant capturedAt;
+        private final String label;
+        private final String url;
+        private final String hash;
+
+        private Snapshot(Instant capturedAt, String label, String url, String hash) {
+            this.capturedAt = capturedAt;
+            this.label = label;
+            this.url = url;
+            this.hash = hash;
+        }
+
+        // Inverse of writeIndex; null for lines this version did not write
+        private static Snapshot parse(String line) {
+            String[] fields = line.split("\t", -1);
+            if (fields.length != 4 || !fields[3].startsWith("objects/") || !fields[3].endsWith(".html.gz")) {
+                return null;
+            }
+            try {
+                String hash = fields[3].substring("objects/".length(), fields[3].length() - ".html.gz".length());
+                return new Snapshot(Instant.parse(fields[0]), fields[1], fields[2], hash);
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -6,18 +6,75 @@ import java.nio.file.Paths;
 import java.time.Duration;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.openqa.selenium.PageLoadStrategy;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
 
-import io.github.bonigarcia.wdm.WebDriverManager;
-
 public final class DriverFactory {
+    private static final Map<WebDriver, Path> SESSION_PROFILES = new ConcurrentHashMap<>();
+    private static final AtomicBoolean SHUTDOWN_HOOK = new AtomicBoolean();
+
     private DriverFactory() {
     }
 
+    // JVM shutdown hooks run concurrently, so pooled sessions and the shared chromedriver service are
+    // torn down by one hook, in order: every quit() still reaches a live service before it is stopped
+    static void registerShutdownHook() {
+        if (SHUTDOWN_HOOK.compareAndSet(false, true)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                DriverPool.shutdownIfStarted();
+                ChromeDriverResolver.stopSharedService();
+            }, "browser-shutdown"));
+        }
+    }
+
+    public static WebDriver acquire() {
+        if (isPoolEnabled()) {
+            return DriverPool.getInstance().lease();
+        }
+        return createInstance();
+    }
+
+    public static void release(WebDriver driver) {
+        if (driver == null) {
+            return;
+        }
+        if (isPoolEnabled()) {
+            DriverPool.getInstance().release(driver);
+        } else {
+            destroy(driver);
+        }
+    }
+
+    static void destroy(WebDriver driver) {
+        ResourceBlocker.detach(driver);
+        NetworkCapture.detach(driver);
+        TrafficRecorder.detach(driver);
+        try {
+            driver.quit();
+        } catch (Exception e) {
+            Log.warn("Driver quit failed: " + e.getMessage());
+        }
+        Path profilePath = SESSION_PROFILES.remove(driver);
+        if (profilePath != null) {
+            ChromeProfileManager.deleteProfile(profilePath);
+        }
+    }
+
+    private static boolean isPoolEnabled() {
+        String value = System.getProperty("driverPool");
+        if (value == null || value.trim().isEmpty()) {
+            return ConfigReader.getBooleanProperty("driverPool", false);
+        }
+        return "true".equalsIgnoreCase(value.trim());
+    }
+
     public static WebDriver createInstance() {
         String browser = ConfigReader.getProperty("browser");
         int implicitWait = ConfigReader.getIntProperty("implicitWait", 0);
@@ -30,14 +87,65 @@ public final class DriverFactory {
             throw new IllegalArgumentException("Only Chrome is supported in this framework");
         }
 
-        WebDriverManager.chromedriver().setup();
-        ChromeOptions options = new ChromeOptions();
+        ChromeDriverResolver.resolve();
         String profileOverride = System.getProperty("chromeProfileDir");
         if (profileOverride == null || profileOverride.trim().isEmpty()) {
             profileOverride = ConfigReader.getProperty("chromeProfileDir");
         }
         boolean reuseProfile = ConfigReader.getBooleanProperty("reuseProfile", false);
+        boolean sessionProfile = false;
         Path profilePath;
+        if (profileOverride != null && !profileOverride.trim().isEmpty()) {
+            profilePath = Paths.get(profileOverride.trim());
+        } else if (reuseProfile) {
+            profilePath = Paths.get("target", "chrome-profile");
+        } else {
+            ChromeProfileManager.cleanStaleProfiles();
+            if (ConfigReader.getBooleanProperty("profileTemplate", true)) {
+                profilePath = ChromeProfileManager.cloneTemplate(DriverFactory::warmTemplate);
+            } else {
+                profilePath = ChromeProfileManager.newEmptyProfile();
+            }
+            sessionProfile = true;
+        }
+        try {
+            Files.createDirectories(profilePath);
+        } catch (Exception ignored) {
+        }
+
+        ChromeDriver driver;
+        try {
+            driver = new ChromeDriver(ChromeDriverResolver.driverService(), buildOptions(profilePath));
+        } catch (RuntimeException e) {
+            if (sessionProfile) {
+                ChromeProfileManager.deleteProfile(profilePath);
+            }
+            throw e;
+        }
+        if (sessionProfile) {
+            SESSION_PROFILES.put(driver, profilePath);
+        }
+        applyStealth(driver);
+        String trafficMode = TrafficRecorder.trafficMode();
+        if ("replay".equals(trafficMode)) {
+            // Replay answers every request itself, so it replaces resource blocking
+            ReplayServer.route(driver);
+        } else {
+            ResourceBlocker.apply(driver);
+        }
+        if ("record".equals(trafficMode)) {
+            TrafficRecorder.install(driver);
+        }
+        if ("network".equalsIgnoreCase(ConfigReader.getProperty("extractionMode"))) {
+            NetworkCapture.install(driver);
+        }
+        driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(implicitWait));
+        driver.manage().window().maximize();
+        return driver;
+    }
+
+    private static ChromeOptions buildOptions(Path profilePath) {
+        ChromeOptions options = new ChromeOptions();
         options.addArguments("--disable-notifications");
         options.addArguments("--disable-popup-blocking");
         options.addArguments("--disable-extensions");
@@ -50,18 +158,8 @@ public final class DriverFactory {
         options.addArguments("--no-default-browser-check");
         options.addArguments("--disable-features=TranslateUI");
         options.addArguments("--disable-features=UserAgentClientHint");
-        if (profileOverride != null && !profileOverride.trim().isEmpty()) {
-            profilePath = Paths.get(profileOverride.trim());
-        } else if (reuseProfile) {
-            profilePath = Paths.get("target", "chrome-profile");
-        } else {
-            profilePath = Paths.get("target", "chrome-profile-" + System.currentTimeMillis());
-        }
-        try {
-            Files.createDirectories(profilePath);
-        } catch (Exception ignored) {
-        }
         options.addArguments("--user-data-dir=" + profilePath.toAbsolutePath());
+        options.setPageLoadStrategy(resolvePageLoadStrategy());
         options.setExperimentalOption("excludeSwitches", Arrays.asList("enable-automation"));
         options.setExperimentalOption("useAutomationExtension", false);
 
@@ -72,12 +170,44 @@ public final class DriverFactory {
         if ("true".equalsIgnoreCase(headlessValue)) {
             options.addArguments("--headless=new");
         }
+        return options;
+    }
 
-        ChromeDriver driver = new ChromeDriver(options);
-        applyStealth(driver);
-        driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(implicitWait));
-        driver.manage().window().maximize();
-        return driver;
+    public static PageLoadStrategy resolvePageLoadStrategy() {
+        String value = System.getProperty("pageLoadStrategy");
+        if (value == null || value.trim().isEmpty()) {
+            value = ConfigReader.getProperty("pageLoadStrategy");
+        }
+        if (value == null || value.trim().isEmpty()) {
+            return PageLoadStrategy.NORMAL;
+        }
+        PageLoadStrategy strategy = PageLoadStrategy.fromString(value.trim().toLowerCase(Locale.ENGLISH));
+        if (strategy == null) {
+            throw new IllegalArgumentException("Unsupported pageLoadStrategy: " + value);
+        }
+        return strategy;
+    }
+
+    private static void warmTemplate(Path templatePath) {
+        ChromeDriver driver = new ChromeDriver(ChromeDriverResolver.driverService(), buildOptions(templatePath));
+        try {
+            applyStealth(driver);
+            String baseUrl = ConfigReader.getProperty("baseUrl");
+            if (baseUrl != null && !baseUrl.trim().isEmpty()) {
+                driver.get(baseUrl.trim());
+                Thread.sleep(Duration.ofSeconds(ConfigReader.getIntProperty("profileTemplateWarmupSeconds", 5)).toMillis());
+                driver.executeScript(
+                        "document.body && document.body.dispatchEvent(new KeyboardEvent('keydown', {key: 'Escape', bubbles: true}));"
+                                + "document.querySelectorAll(\"span.commonModal__close, [aria-label='Close'], [aria-label='close'],"
+                                + " button.close, span.close\").forEach(function(el){try{el.click();}catch(e){}});"
+                );
+                Thread.sleep(1000);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            driver.quit();
+        }
     }
 
     private static void applyStealth(ChromeDriver driver) {
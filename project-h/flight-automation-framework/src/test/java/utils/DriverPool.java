@@ -0,0 +1,283 @@
+package utils;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chrome.ChromeDriver;
+
+public final class DriverPool {
+    private static volatile DriverPool instance;
+
+    private final int maxSize;
+    private final long idleTimeoutMillis;
+    private final int maxUses;
+    private final long leaseTimeoutMillis;
+    private final Semaphore permits;
+    private final Deque<PooledSession> idle = new ArrayDeque<>();
+    private final Map<WebDriver, PooledSession> leased = new IdentityHashMap<>();
+
+    private DriverPool(int maxSize, int idleTimeoutSeconds, int maxUses, int leaseTimeoutSeconds) {
+        this.maxSize = Math.max(1, maxSize);
+        this.idleTimeoutMillis = Duration.ofSeconds(Math.max(0, idleTimeoutSeconds)).toMillis();
+        this.maxUses = Math.max(1, maxUses);
+        this.leaseTimeoutMillis = Duration.ofSeconds(Math.max(1, leaseTimeoutSeconds)).toMillis();
+        this.permits = new Semaphore(this.maxSize, true);
+    }
+
+    public static DriverPool getInstance() {
+        DriverPool pool = instance;
+        if (pool == null) {
+            synchronized (DriverPool.class) {
+                pool = instance;
+                if (pool == null) {
+                    pool = new DriverPool(
+                            ConfigReader.getIntProperty("driverPoolSize", 2),
+                            ConfigReader.getIntProperty("driverPoolIdleTimeoutSeconds", 300),
+                            ConfigReader.getIntProperty("driverPoolMaxUses", 20),
+                            ConfigReader.getIntProperty("driverPoolLeaseTimeoutSeconds", 300)
+                    );
+                    pool.warmUp(ConfigReader.getIntProperty("driverPoolWarmSessions", 1));
+                    DriverFactory.registerShutdownHook();
+                    instance = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    public WebDriver lease() {
+        try {
+            if (!permits.tryAcquire(leaseTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("No pooled browser session became available within "
+                        + (leaseTimeoutMillis / 1000) + "s (driverPoolSize=" + maxSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a pooled browser session", e);
+        }
+
+        try {
+            PooledSession session = pollHealthySession();
+            if (session == null) {
+                session = new PooledSession(DriverFactory.createInstance());
+                Log.info("Driver pool: launched new session");
+            }
+            session.uses++;
+            synchronized (this) {
+                leased.put(session.driver, session);
+            }
+            return session.driver;
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public void release(WebDriver driver) {
+        if (driver == null) {
+            return;
+        }
+        PooledSession session;
+        synchronized (this) {
+            session = leased.remove(driver);
+        }
+        if (session == null) {
+            DriverFactory.destroy(driver);
+            return;
+        }
+        try {
+            if (session.uses >= maxUses) {
+                Log.info("Driver pool: retiring session after " + session.uses + " uses");
+                DriverFactory.destroy(driver);
+            } else if (scrub(driver) && isHealthy(driver)) {
+                session.lastReturned = System.currentTimeMillis();
+                synchronized (this) {
+                    idle.addFirst(session);
+                }
+            } else {
+                Log.info("Driver pool: discarding session that failed scrub/health check");
+                DriverFactory.destroy(driver);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    static void shutdownIfStarted() {
+        DriverPool pool = instance;
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    public void shutdown() {
+        List<PooledSession> sessions;
+        synchronized (this) {
+            sessions = new ArrayList<>(idle);
+            sessions.addAll(leased.values());
+            idle.clear();
+            leased.clear();
+        }
+        for (PooledSession session : sessions) {
+            DriverFactory.destroy(session.driver);
+        }
+    }
+
+    private void warmUp(int sessions) {
+        int count = Math.min(Math.max(0, sessions), maxSize);
+        for (int i = 0; i < count; i++) {
+            try {
+                PooledSession session = new PooledSession(DriverFactory.createInstance());
+                session.lastReturned = System.currentTimeMillis();
+                synchronized (this) {
+                    idle.addLast(session);
+                }
+            } catch (WebDriverException e) {
+                Log.warn("Driver pool: warm-up launch failed: " + e.getMessage());
+                return;
+            }
+        }
+        if (count > 0) {
+            Log.info("Driver pool: pre-launched " + count + " session(s)");
+        }
+    }
+
+    private PooledSession pollHealthySession() {
+        List<PooledSession> expired = new ArrayList<>();
+        PooledSession candidate = null;
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            Iterator<PooledSession> iterator = idle.iterator();
+            while (iterator.hasNext()) {
+                PooledSession session = iterator.next();
+                if (idleTimeoutMillis > 0 && now - session.lastReturned > idleTimeoutMillis) {
+                    iterator.remove();
+                    expired.add(session);
+                }
+            }
+            candidate = idle.pollFirst();
+        }
+        for (PooledSession session : expired) {
+            Log.info("Driver pool: evicting session idle for more than " + (idleTimeoutMillis / 1000) + "s");
+            DriverFactory.destroy(session.driver);
+        }
+        while (candidate != null && !isHealthy(candidate.driver)) {
+            DriverFactory.destroy(candidate.driver);
+            synchronized (this) {
+                candidate = idle.pollFirst();
+            }
+        }
+        return candidate;
+    }
+
+    private boolean scrub(WebDriver driver) {
+        try {
+            Set<String> handles = driver.getWindowHandles();
+            String keep = handles.iterator().next();
+            for (String handle : handles) {
+                if (!handle.equals(keep)) {
+                    driver.switchTo().window(handle);
+                    driver.close();
+                }
+            }
+            driver.switchTo().window(keep);
+            driver.switchTo().defaultContent();
+            List<String> origins = visitedOrigins(driver);
+            try {
+                ((JavascriptExecutor) driver).executeScript(
+                        "try{window.localStorage.clear();}catch(e){}"
+                                + "try{window.sessionStorage.clear();}catch(e){}");
+            } catch (WebDriverException e) {
+                Log.warn("Driver pool: clearing web storage failed: " + e.getMessage());
+            }
+            driver.manage().deleteAllCookies();
+            NetworkCapture.clear(driver);
+            if (driver instanceof ChromeDriver) {
+                ChromeDriver chrome = (ChromeDriver) driver;
+                chrome.executeCdpCommand("Network.clearBrowserCookies", new HashMap<>());
+                // clearDataForOrigin takes one concrete origin per call; "*" is rejected
+                for (String origin : origins) {
+                    Map<String, Object> params = new HashMap<>();
+                    params.put("origin", origin);
+                    params.put("storageTypes", "local_storage,session_storage,indexeddb,websql,service_workers,cache_storage");
+                    try {
+                        chrome.executeCdpCommand("Storage.clearDataForOrigin", params);
+                    } catch (WebDriverException e) {
+                        Log.warn("Driver pool: clearing storage for " + origin + " failed: " + e.getMessage());
+                    }
+                }
+            }
+            driver.get("about:blank");
+            return true;
+        } catch (RuntimeException e) {
+            Log.warn("Driver pool: scrub failed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // The configured site, the current page, and every origin the page loaded resources or frames from
+    private static List<String> visitedOrigins(WebDriver driver) {
+        Set<String> origins = new LinkedHashSet<>();
+        addOrigin(origins, ConfigReader.getProperty("baseUrl"));
+        try {
+            Object raw = ((JavascriptExecutor) driver).executeScript(
+                    "return [location.href].concat(performance.getEntriesByType('resource').map(function (e) { return e.name; }));");
+            if (raw instanceof List) {
+                for (Object url : (List<?>) raw) {
+                    addOrigin(origins, String.valueOf(url));
+                }
+            }
+        } catch (WebDriverException e) {
+            Log.warn("Driver pool: could not list visited origins: " + e.getMessage());
+        }
+        return new ArrayList<>(origins);
+    }
+
+    private static void addOrigin(Set<String> origins, String url) {
+        if (url == null) {
+            return;
+        }
+        try {
+            URI uri = URI.create(url.trim());
+            if (("http".equals(uri.getScheme()) || "https".equals(uri.getScheme())) && uri.getHost() != null) {
+                origins.add(uri.getScheme() + "://" + uri.getHost() + (uri.getPort() < 0 ? "" : ":" + uri.getPort()));
+            }
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
+
+    private boolean isHealthy(WebDriver driver) {
+        try {
+            driver.getWindowHandle();
+            Object result = ((JavascriptExecutor) driver).executeScript("return 1;");
+            return result != null;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static final class PooledSession {
+        private final WebDriver driver;
+        private int uses;
+        private long lastReturned;
+
+        private PooledSession(WebDriver driver) {
+            this.driver = driver;
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+// Append-only log of every fare a run observed, memory-mapped so queries read fields in place.
+// Layout: a 32-byte header (magic, record size, committed record count) followed by fixed 40-byte
+// records:
+//   observedAt millis (8) | route: six A-Z letters at 5 bits each (4) | travel date epoch day (4)
+//   | price (4) | departure minute of day (2) | arrival minute of day (2) | airline, UTF-8, NUL padded (16)
+// The count is written after the records, so a crash mid-append leaves only uncommitted bytes behind.
+// Observation times never go backwards in the file, which lets a "since" bound binary search.
+// Appends take an exclusive file lock, so parallel forks can share one store.
+public final class FareHistoryStore implements Closeable {
+    private static final int MAGIC = 0x46485331; // "FHS1"
+    private static final int HEADER_SIZE = 32;
+    private static final int RECORD_SIZE = 40;
+    private static final int COUNT_OFFSET = 8;
+    private static final int AIRLINE_BYTES = 16;
+    private static final int INITIAL_RECORDS = 4096;
+    private static volatile FareHistoryStore shared;
+
+    private final Path path;
+    private final FileChannel channel;
+    private MappedByteBuffer map;
+
+    private FareHistoryStore(Path path) throws IOException {
+        this.path = path;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileLock lock = channel.lock();
+        try {
+            if (channel.size() < HEADER_SIZE) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(0, MAGIC).putInt(4, RECORD_SIZE).putLong(COUNT_OFFSET, 0);
+                channel.write(header, 0);
+            }
+            remap(Math.max(channel.size(), HEADER_SIZE + (long) INITIAL_RECORDS * RECORD_SIZE));
+        } finally {
+            lock.release();
+        }
+        if (map.getInt(0) != MAGIC || map.getInt(4) != RECORD_SIZE) {
+            channel.close();
+            throw new IOException("Not a fare history store: " + path);
+        }
+    }
+
+    public static FareHistoryStore open(Path path) {
+        try {
+            return new FareHistoryStore(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open fare history " + path, e);
+        }
+    }
+
+    // The store for this machine; it lives outside target/ so months of history survive mvn clean
+    public static FareHistoryStore shared() {
+        FareHistoryStore current = shared;
+        if (current == null) {
+            synchronized (FareHistoryStore.class) {
+                current = shared;
+                if (current == null) {
+                    current = open(defaultPath());
+                    Runtime.getRuntime().addShutdownHook(new Thread(current::close, "fare-history-close"));
+                    shared = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    public static Path defaultPath() {
+        String configured = System.getProperty("fareHistoryPath");
+        if (configured == null || configured.trim().isEmpty()) {
+            configured = ConfigReader.getProperty("fareHistoryPath");
+        }
+        if (configured != null && !configured.trim().isEmpty()) {
+            return Paths.get(configured.trim());
+        }
+        return Paths.get(System.getProperty("user.home"), ".cache", "flight-automation", "fare-history.bin");
+    }
+
+    public void append(Observation observation) {
+        appendAll(Collections.singletonList(observation));
+    }
+
+    public synchronized void appendAll(List<Observation> observations) {
+        if (observations.isEmpty()) {
+            return;
+        }
+        try {
+            FileLock lock = channel.lock();
+            try {
+                long count = map.getLong(COUNT_OFFSET);
+                long needed = HEADER_SIZE + (count + observations.size()) * RECORD_SIZE;
+                if (needed > map.capacity() || channel.size() > map.capacity()) {
+                    remap(Math.max(needed, Math.max(channel.size(), map.capacity() * 2L)));
+                }
+                long last = count == 0 ? Long.MIN_VALUE : map.getLong(offset(count - 1));
+                for (Observation observation : observations) {
+                    last = Math.max(last, observation.observedAt.toEpochMilli());
+                    write(offset(count++), observation, last);
+                }
+                map.putLong(COUNT_OFFSET, count);
+            } finally {
+                lock.release();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to fare history " + path, e);
+        }
+    }
+
+    public synchronized long size() {
+        return map.getLong(COUNT_OFFSET);
+    }
+
+    // Observations of one route and travel date made in [since, until), oldest first
+    public List<Observation> query(String from, String to, LocalDate travelDate, Instant since, Instant until) {
+        List<Observation> matches = new ArrayList<>();
+        scan(from, to, travelDate, since, until, record -> matches.add(read(record)));
+        return matches;
+    }
+
+    // e.g. cheapest BOM->BLR for 26 Jan seen in the last 7 days; null when nothing matches
+    public Observation cheapest(String from, String to, LocalDate travelDate, Instant since) {
+        int[] best = {-1, Integer.MAX_VALUE};
+        scan(from, to, travelDate, since, Instant.MAX, record -> {
+            int price = map.getInt(record + 16);
+            if (price < best[1]) {
+                best[0] = record;
+                best[1] = price;
+            }
+        });
+        return best[0] < 0 ? null : read(best[0]);
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            if (channel.isOpen()) {
+                map.force();
+                channel.close();
+            }
+        } catch (IOException e) {
+            Log.warn("Failed to close fare history " + path + ": " + e.getMessage());
+        }
+    }
+
+    private interface RecordVisitor {
+        void visit(int offset);
+    }
+
+    // Only route, date and time are read for records that do not match; nothing is decoded up front
+    private synchronized void scan(String from, String to, LocalDate travelDate, Instant since, Instant until, RecordVisitor visitor) {
+        int route = encodeRoute(from, to);
+        int day = (int) travelDate.toEpochDay();
+        long sinceMillis = since.equals(Instant.MIN) ? Long.MIN_VALUE : since.toEpochMilli();
+        long untilMillis = until.equals(Instant.MAX) ? Long.MAX_VALUE : until.toEpochMilli();
+        try {
+            if (channel.size() > map.capacity()) {
+                remap(channel.size());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read fare history " + path, e);
+        }
+        long count = map.getLong(COUNT_OFFSET);
+        for (long i = firstAtOrAfter(sinceMillis, count); i < count; i++) {
+            int record = offset(i);
+            if (map.getLong(record) >= untilMillis) {
+                break;
+            }
+            if (map.getInt(record + 8) == route && map.getInt(record + 12) == day) {
+                visitor.visit(record);
+            }
+        }
+    }
+
+    private long firstAtOrAfter(long millis, long count) {
+        long low = 0;
+        long high = count;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (map.getLong(offset(middle)) < millis) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void write(int record, Observation observation, long observedAt) {
+        map.putLong(record, observedAt);
+        map.putInt(record + 8, encodeRoute(observation.from, observation.to));
+        map.putInt(record + 12, (int) observation.travelDate.toEpochDay());
+        map.putInt(record + 16, observation.price);
+        map.putShort(record + 20, (short) observation.departureMinutes);
+        map.putShort(record + 22, (short) observation.arrivalMinutes);
+        byte[] airline = observation.airline.getBytes(StandardCharsets.UTF_8);
+        int length = utf8PrefixLength(airline, AIRLINE_BYTES);
+        for (int i = 0; i < AIRLINE_BYTES; i++) {
+            map.put(record + 24 + i, i < length ? airline[i] : 0);
+        }
+    }
+
+    private Observation read(int record) {
+        int route = map.getInt(record + 8);
+        byte[] airline = new byte[AIRLINE_BYTES];
+        int length = 0;
+        while (length < AIRLINE_BYTES && map.get(record + 24 + length) != 0) {
+            airline[length] = map.get(record + 24 + length);
+            length++;
+        }
+        return new Observation(Instant.ofEpochMilli(map.getLong(record)), decodeCode(route >>> 15), decodeCode(route & 0x7FFF),
+                LocalDate.ofEpochDay(map.getInt(record + 12)), map.getInt(record + 16),
+                map.getShort(record + 20), map.getShort(record + 22), new String(airline, 0, length, StandardCharsets.UTF_8));
+    }
+
+    private void remap(long capacity) throws IOException {
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IOException("Fare history " + path + " exceeds 2 GB; rotate it");
+        }
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    private static int offset(long index) {
+        return (int) (HEADER_SIZE + index * RECORD_SIZE);
+    }
+
+    // Truncates on a character boundary so a long airline name never leaves half a code point behind
+    private static int utf8PrefixLength(byte[] bytes, int max) {
+        if (bytes.length <= max) {
+            return bytes.length;
+        }
+        int length = max;
+        while (length > 0 && (bytes[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        return length;
+    }
+
+    static int encodeRoute(String from, String to) {
+        return encodeCode(from) << 15 | encodeCode(to);
+    }
+
+    private static int encodeCode(String code) {
+        String normalized = code == null ? "" : code.trim().toUpperCase(Locale.ENGLISH);
+        if (normalized.length() != 3) {
+            throw new IllegalArgumentException("Airport code must be three letters: " + code);
+        }
+        int packed = 0;
+        for (int i = 0; i < 3; i++) {
+            char c = normalized.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                throw new IllegalArgumentException("Airport code must be three letters: " + code);
+            }
+            packed = packed << 5 | (c - 'A' + 1);
+        }
+        return packed;
+    }
+
+    private static String decodeCode(int packed) {
+        char[] code = new char[3];
+        for (int i = 2; i >= 0; i--) {
+            code[i] = (char) ('A' - 1 + (packed & 0x1F));
+            packed >>>= 5;
+        }
+        return new String(code);
+    }
+
+    public static final class Observation {
+        private final Instant observedAt;
+        private final String from;
+        private final String to;
+        private final LocalDate travelDate;
+        private final int price;
+        private final int departureMinutes;
+        private final int arrivalMinutes;
+        private final String airline;
+
+        public Observation(Instant observedAt, String from, String to, LocalDate travelDate, int price,
+                int departureMinutes, int arrivalMinutes, String airline) {
+            this.observedAt = observedAt;
+            this.from = from;
+            this.to = to;
+            this.travelDate = travelDate;
+            this.price = price;
+            this.departureMinutes = departureMinutes;
+            this.arrivalMinutes = arrivalMinutes;
+            this.airline = airline == null ? "" : airline;
+        }
+
+        public Instant getObservedAt() { return observedAt; }
+        public String getFrom() { return from; }
+        public String getTo() { return to; }
+        public LocalDate getTravelDate() { return travelDate; }
+        public int getPrice() { return price; }
+        public int getDepartureMinutes() { return departureMinutes; }
+        public int getArrivalMinutes() { return arrivalMinutes; }
+        public String getAirline() { return airline; }
+
+        @Override
+        public String toString() {
+            return from + "->" + to + " " + travelDate + " " + airline + " INR " + price
+                    + " dep " + FareTokenizer.formatTime(departureMinutes) + " (seen " + observedAt + ")";
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package utils;
+
+// Single left-to-right pass over card text that recognises fares, clock times and durations
+// without regexes or intermediate Strings. Fares may carry a currency marker (₹, Rs, Rs., INR)
+// and Indian or western digit grouping; when two marked fares sit next to each other and the
+// first is higher, the first is the struck-through list price and the second the final fare.
+public final class FareTokenizer {
+    public static final int NONE = -1;
+    private static final int MAX_AMOUNT = 100_000_000;
+    // Longest spelling first so "hrs" is not read as "h" followed by letters
+    private static final String[] HOUR_UNITS = {"hours", "hour", "hrs", "hr", "h"};
+    private static final String[] MINUTE_UNITS = {"minutes", "minute", "mins", "min", "m"};
+
+    public interface Handler {
+        default void price(int amount, boolean currencyMarked, boolean discount, int start, int end) {
+        }
+
+        default void time(int minutesOfDay, int start, int end) {
+        }
+
+        default void duration(int minutes, int start, int end) {
+        }
+    }
+
+    private FareTokenizer() {
+    }
+
+    public static void tokenize(CharSequence text, Handler handler) {
+        if (text == null) {
+            return;
+        }
+        int length = text.length();
+        int i = 0;
+        boolean marked = false;
+        int markStart = -1;
+        while (i < length) {
+            char c = text.charAt(i);
+            int markerEnd = currencyMarkerEnd(text, i);
+            if (markerEnd > i) {
+                marked = true;
+                markStart = i;
+                i = markerEnd;
+                continue;
+            }
+            if (!isDigit(c)) {
+                // A marker only applies to the amount that directly follows it
+                if (marked && !Character.isWhitespace(c)) {
+                    marked = false;
+                }
+                i++;
+                continue;
+            }
+            int start = i;
+            boolean identifier = start > 0 && isIdentifierChar(text, start - 1);
+            int value = 0;
+            int digits = 0;
+            boolean grouped = false;
+            while (i < length) {
+                char d = text.charAt(i);
+                if (isDigit(d)) {
+                    if (value < MAX_AMOUNT) {
+                        value = value * 10 + (d - '0');
+                    }
+                    digits++;
+                    i++;
+                } else if (d == ',' && i + 1 < length && isDigit(text.charAt(i + 1)) && digits > 0) {
+                    grouped = true;
+                    i++;
+                } else {
+                    break;
+                }
+            }
+
+            if (!grouped && !marked && digits <= 2 && i + 2 < length && text.charAt(i) == ':'
+                    && isDigit(text.charAt(i + 1)) && isDigit(text.charAt(i + 2))
+                    && (i + 3 >= length || !isDigit(text.charAt(i + 3)))) {
+                int hours = value;
+                int minutes = (text.charAt(i + 1) - '0') * 10 + (text.charAt(i + 2) - '0');
+                i += 3;
+                int meridiemEnd = meridiemEnd(text, i);
+                if (meridiemEnd > i) {
+                    boolean pm = Character.toLowerCase(text.charAt(skipSpaces(text, i))) == 'p';
+                    if (pm && hours < 12) {
+                        hours += 12;
+                    } else if (!pm && hours == 12) {
+                        hours = 0;
+                    }
+                    i = meridiemEnd;
+                }
+                if (hours < 24 && minutes < 60 && !identifier) {
+                    handler.time(hours * 60 + minutes, start, i);
+                }
+                continue;
+            }
+
+            if (!grouped && !marked && !identifier && digits <= 3) {
+                int hourUnitEnd = unitEnd(text, i, true);
+                int minuteUnitEnd = hourUnitEnd > i ? -1 : unitEnd(text, i, false);
+                if (hourUnitEnd > i) {
+                    int total = value * 60;
+                    int end = hourUnitEnd;
+                    // "2h 15m" is one duration
+                    int next = skipSpaces(text, hourUnitEnd);
+                    int minuteValue = 0;
+                    int minuteDigits = 0;
+                    int j = next;
+                    while (j < length && isDigit(text.charAt(j)) && minuteDigits < 3) {
+                        minuteValue = minuteValue * 10 + (text.charAt(j) - '0');
+                        minuteDigits++;
+                        j++;
+                    }
+                    if (minuteDigits > 0) {
+                        int minuteEnd = unitEnd(text, j, false);
+                        if (minuteEnd > j) {
+                            total += minuteValue;
+                            end = minuteEnd;
+                        }
+                    }
+                    handler.duration(total, start, end);
+                    i = end;
+                    continue;
+                }
+                if (minuteUnitEnd > i) {
+                    handler.duration(value, start, minuteUnitEnd);
+                    i = minuteUnitEnd;
+                    continue;
+                }
+            }
+
+            // Paise are never part of the fare
+            if (i + 1 < length && text.charAt(i) == '.' && isDigit(text.charAt(i + 1))) {
+                i++;
+                while (i < length && isDigit(text.charAt(i))) {
+                    i++;
+                }
+            }
+
+            if (marked) {
+                handler.price(value, true, isDiscount(text, markStart, i), markStart, i);
+                marked = false;
+            } else if (!identifier && digits >= 3) {
+                handler.price(value, false, isDiscount(text, start, i), start, i);
+            }
+        }
+    }
+
+    public static int finalFare(CharSequence text) {
+        Summary summary = new Summary();
+        summary.scan(text);
+        return summary.finalFare;
+    }
+
+    public static Summary summarize(CharSequence text) {
+        Summary summary = new Summary();
+        summary.scan(text);
+        return summary;
+    }
+
+    // Everything the results page needs from one card in one pass
+    public static final class Summary implements Handler {
+        private int finalFare = NONE;
+        private int struckFare = NONE;
+        private int largestBareNumber = NONE;
+        private int firstTime = NONE;
+        private int lastTime = NONE;
+        private int timeCount;
+        private int duration = NONE;
+        private int previousMarked = NONE;
+        private int previousMarkedEnd = -1;
+        private CharSequence text;
+
+        private void scan(CharSequence input) {
+            text = input;
+            tokenize(input, this);
+            text = null;
+            if (finalFare == NONE) {
+                finalFare = largestBareNumber;
+            }
+        }
+
+        @Override
+        public void price(int amount, boolean currencyMarked, boolean discount, int start, int end) {
+            if (!currencyMarked) {
+                if (!discount && amount > largestBareNumber) {
+                    largestBareNumber = amount;
+                }
+                return;
+            }
+            if (discount) {
+                return;
+            }
+            boolean adjacent = previousMarked != NONE && onlySeparatorsBetween(text, previousMarkedEnd, start);
+            if (adjacent && previousMarked > amount && finalFare == previousMarked) {
+                struckFare = previousMarked;
+                finalFare = amount;
+            } else if (finalFare == NONE) {
+                finalFare = amount;
+            }
+            previousMarked = amount;
+            previousMarkedEnd = end;
+        }
+
+        @Override
+        public void time(int minutesOfDay, int start, int end) {
+            if (firstTime == NONE) {
+                firstTime = minutesOfDay;
+            }
+            lastTime = minutesOfDay;
+            timeCount++;
+        }
+
+        @Override
+        public void duration(int minutes, int start, int end) {
+            if (duration == NONE) {
+                duration = minutes;
+            }
+        }
+
+        public int getFinalFare() { return finalFare; }
+        public int getStruckFare() { return struckFare; }
+        public int getFirstTime() { return firstTime; }
+        public int getLastTime() { return lastTime; }
+        public int getTimeCount() { return timeCount; }
+        public int getDuration() { return duration; }
+
+        public String departureTime() {
+            return formatTime(firstTime);
+        }
+
+        public String arrivalTime() {
+            return timeCount > 1 ? formatTime(lastTime) : "";
+        }
+    }
+
+    public static String formatTime(int minutesOfDay) {
+        if (minutesOfDay == NONE) {
+            return "";
+        }
+        char[] out = {
+                (char) ('0' + minutesOfDay / 600), (char) ('0' + minutesOfDay / 60 % 10), ':',
+                (char) ('0' + minutesOfDay % 60 / 10), (char) ('0' + minutesOfDay % 10)
+        };
+        return new String(out);
+    }
+
+    private static int currencyMarkerEnd(CharSequence text, int i) {
+        char c = text.charAt(i);
+        if (c == '₹') {
+            return skipSpaces(text, i + 1);
+        }
+        if (i > 0 && Character.isLetter(text.charAt(i - 1))) {
+            return i;
+        }
+        int end = i;
+        if (regionMatches(text, i, "rs")) {
+            end = i + 2;
+            if (end < text.length() && text.charAt(end) == '.') {
+                end++;
+            }
+        } else if (regionMatches(text, i, "inr")) {
+            end = i + 3;
+        } else {
+            return i;
+        }
+        if (end < text.length() && Character.isLetter(text.charAt(end))) {
+            return i;
+        }
+        int next = skipSpaces(text, end);
+        return next < text.length() && isDigit(text.charAt(next)) ? next : i;
+    }
+
+    private static int meridiemEnd(CharSequence text, int i) {
+        int j = skipSpaces(text, i);
+        if (j + 1 < text.length()) {
+            char first = Character.toLowerCase(text.charAt(j));
+            char second = Character.toLowerCase(text.charAt(j + 1));
+            if ((first == 'a' || first == 'p') && second == 'm'
+                    && (j + 2 >= text.length() || !Character.isLetter(text.charAt(j + 2)))) {
+                return j + 2;
+            }
+        }
+        return i;
+    }
+
+    // Accepts h, hr, hrs, hour, hours (or m, min, mins, minute, minutes) as a whole word
+    private static int unitEnd(CharSequence text, int i, boolean hours) {
+        int j = skipSpaces(text, i);
+        if (j >= text.length()) {
+            return i;
+        }
+        for (String unit : hours ? HOUR_UNITS : MINUTE_UNITS) {
+            if (regionMatches(text, j, unit)) {
+                int end = j + unit.length();
+                if (end >= text.length() || !Character.isLetter(text.charAt(end))) {
+                    return end;
+                }
+            }
+        }
+        return i;
+    }
+
+    private static boolean isDiscount(CharSequence text, int start, int end) {
+        int before = start - 1;
+        while (before >= 0 && (Character.isWhitespace(text.charAt(before)) || text.charAt(before) == ':')) {
+            before--;
+        }
+        if (endsWithWord(text, before, "save") || endsWithWord(text, before, "saved")
+                || endsWithWord(text, before, "cashback") || endsWithWord(text, before, "discount")) {
+            return true;
+        }
+        int after = skipSpaces(text, end);
+        return regionMatches(text, after, "off") && (after + 3 >= text.length() || !Character.isLetter(text.charAt(after + 3)));
+    }
+
+    private static boolean endsWithWord(CharSequence text, int last, String word) {
+        int start = last - word.length() + 1;
+        if (start < 0 || !regionMatches(text, start, word)) {
+            return false;
+        }
+        return start == 0 || !Character.isLetter(text.charAt(start - 1));
+    }
+
+    private static boolean onlySeparatorsBetween(CharSequence text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (!Character.isWhitespace(c) && c != '|' && c != '/') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // A number glued to letters (AI505, 6E-2134) or following a two-character carrier code
+    // (AI 505, 6E 6172) is a flight number, not a fare or a time
+    private static boolean isIdentifierChar(CharSequence text, int index) {
+        char c = text.charAt(index);
+        if (Character.isLetter(c)) {
+            return true;
+        }
+        if (c == '-') {
+            return index > 0 && Character.isLetterOrDigit(text.charAt(index - 1));
+        }
+        if (c != ' ' || index < 2) {
+            return false;
+        }
+        char first = text.charAt(index - 2);
+        char second = text.charAt(index - 1);
+        boolean code = isCarrierCodeChar(first) && isCarrierCodeChar(second)
+                && (Character.isLetter(first) || Character.isLetter(second));
+        return code && (index == 2 || !Character.isLetterOrDigit(text.charAt(index - 3)));
+    }
+
+    private static boolean isCarrierCodeChar(char c) {
+        return (c >= 'A' && c <= 'Z') || isDigit(c);
+    }
+
+    private static boolean regionMatches(CharSequence text, int offset, String lowerCaseWord) {
+        if (offset < 0 || offset + lowerCaseWord.length() > text.length()) {
+            return false;
+        }
+        for (int k = 0; k < lowerCaseWord.length(); k++) {
+            if (Character.toLowerCase(text.charAt(offset + k)) != lowerCaseWord.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int skipSpaces(CharSequence text, int i) {
+        while (i < text.length() && Character.isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
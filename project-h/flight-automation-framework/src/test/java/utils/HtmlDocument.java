@@ -0,0 +1,663 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Just enough of an HTML parser to read a saved results page without a browser: a forgiving
+// tokenizer (unclosed tags, void elements, raw-text script/style, entities), a tree of elements
+// and text, innerText-like text extraction, and querySelectorAll for the CSS subset the page
+// objects use: tag, *, #id, .class, [attr], [attr=v], [attr*=v], [attr^=v], [attr$=v], [attr~=v],
+// descendant and child combinators and comma lists. Anything else (pseudo-classes, XPath) matches nothing.
+public final class HtmlDocument {
+    private static final Set<String> VOID_ELEMENTS = new HashSet<>(Arrays.asList(
+            "area", "base", "br", "col", "embed", "hr", "img", "input", "link", "meta", "param", "source", "track", "wbr"));
+    private static final Set<String> RAW_TEXT_ELEMENTS = new HashSet<>(Arrays.asList("script", "style", "textarea", "title"));
+    // Never rendered, so never part of a card's text
+    private static final Set<String> NON_RENDERED = new HashSet<>(Arrays.asList("script", "style", "template", "noscript", "head"));
+    private static final Set<String> INLINE_ELEMENTS = new HashSet<>(Arrays.asList(
+            "a", "abbr", "b", "bdi", "bdo", "cite", "code", "data", "del", "dfn", "em", "font", "i", "img", "ins", "kbd",
+            "label", "mark", "q", "s", "samp", "small", "span", "strike", "strong", "sub", "sup", "time", "u", "var", "svg"));
+    // Opening one of these implicitly closes an open sibling of the same kind
+    private static final Set<String> SELF_CLOSING_SIBLINGS = new HashSet<>(Arrays.asList("li", "p", "option", "tr", "td", "th", "dt", "dd"));
+
+    private final Element root;
+
+    private HtmlDocument(Element root) {
+        this.root = root;
+    }
+
+    public static HtmlDocument parse(String html) {
+        Element root = new Element("#document", Collections.emptyMap(), null);
+        new Parser(html == null ? "" : html, root).run();
+        return new HtmlDocument(root);
+    }
+
+    public Element root() {
+        return root;
+    }
+
+    public List<Element> select(String css) {
+        return root.select(css);
+    }
+
+    public static final class Element {
+        private final String tagName;
+        private final Map<String, String> attributes;
+        private final Element parent;
+        private final List<Object> children = new ArrayList<>();
+
+        private Element(String tagName, Map<String, String> attributes, Element parent) {
+            this.tagName = tagName;
+            this.attributes = attributes;
+            this.parent = parent;
+        }
+
+        public String tagName() {
+            return tagName;
+        }
+
+        public String attr(String name) {
+            String value = attributes.get(name.toLowerCase(Locale.ENGLISH));
+            return value == null ? "" : value;
+        }
+
+        public boolean hasAttr(String name) {
+            return attributes.containsKey(name.toLowerCase(Locale.ENGLISH));
+        }
+
+        public Element parent() {
+            return parent;
+        }
+
+        public List<Element> children() {
+            List<Element> elements = new ArrayList<>();
+            for (Object child : children) {
+                if (child instanceof Element) {
+                    elements.add((Element) child);
+                }
+            }
+            return elements;
+        }
+
+        // No stylesheet is applied offline, so only markup-level hiding is recognised
+        public boolean isHidden() {
+            for (Element element = this; element != null; element = element.parent) {
+                if (NON_RENDERED.contains(element.tagName) || element.hasAttr("hidden")
+                        || "true".equals(element.attr("aria-hidden"))) {
+                    return true;
+                }
+                String style = element.attr("style").replace(" ", "").toLowerCase(Locale.ENGLISH);
+                if (style.contains("display:none") || style.contains("visibility:hidden")) {
+                    return true;
+                }
+                if ("input".equals(element.tagName) && "hidden".equalsIgnoreCase(element.attr("type"))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Approximates innerText: block elements start a new line, whitespace runs collapse
+        public String text() {
+            StringBuilder out = new StringBuilder();
+            appendText(out);
+            return out.toString().trim();
+        }
+
+        private void appendText(StringBuilder out) {
+            if (NON_RENDERED.contains(tagName)) {
+                return;
+            }
+            boolean block = !INLINE_ELEMENTS.contains(tagName);
+            if (block || "br".equals(tagName)) {
+                newLine(out);
+            }
+            for (Object child : children) {
+                if (child instanceof Element) {
+                    ((Element) child).appendText(out);
+                } else {
+                    appendCollapsed(out, (String) child);
+                }
+            }
+            if (block) {
+                newLine(out);
+            }
+        }
+
+        private static void newLine(StringBuilder out) {
+            int end = out.length();
+            while (end > 0 && out.charAt(end - 1) == ' ') {
+                end--;
+            }
+            out.setLength(end);
+            if (end > 0 && out.charAt(end - 1) != '\n') {
+                out.append('\n');
+            }
+        }
+
+        private static void appendCollapsed(StringBuilder out, String text) {
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (Character.isWhitespace(c) || c == '\u00a0') {
+                    int last = out.length() - 1;
+                    if (last >= 0 && out.charAt(last) != ' ' && out.charAt(last) != '\n') {
+                        out.append(' ');
+                    }
+                } else {
+                    out.append(c);
+                }
+            }
+        }
+
+        // Descendants matching the selector, in document order, like querySelectorAll
+        public List<Element> select(String css) {
+            List<List<Compound>> group = Selector.parse(css);
+            List<Element> matches = new ArrayList<>();
+            if (!group.isEmpty()) {
+                collect(group, matches);
+            }
+            return matches;
+        }
+
+        private void collect(List<List<Compound>> group, List<Element> matches) {
+            for (Object child : children) {
+                if (child instanceof Element) {
+                    Element element = (Element) child;
+                    for (List<Compound> chain : group) {
+                        if (Selector.matches(element, chain, chain.size() - 1)) {
+                            matches.add(element);
+                            break;
+                        }
+                    }
+                    element.collect(group, matches);
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "<" + tagName + attributes + ">";
+        }
+    }
+
+    private static final class Parser {
+        private final String html;
+        private final List<Element> open = new ArrayList<>();
+        private int pos;
+
+        private Parser(String html, Element root) {
+            this.html = html;
+            open.add(root);
+        }
+
+        private Element current() {
+            return open.get(open.size() - 1);
+        }
+
+        private void run() {
+            int length = html.length();
+            StringBuilder text = new StringBuilder();
+            while (pos < length) {
+                char c = html.charAt(pos);
+                if (c == '<' && pos + 1 < length) {
+                    char next = html.charAt(pos + 1);
+                    if (next == '!' || next == '?' || next == '/' || Character.isLetter(next)) {
+                        flushText(text);
+                        if (html.startsWith("<!--", pos)) {
+                            int end = html.indexOf("-->", pos + 4);
+                            pos = end < 0 ? length : end + 3;
+                        } else if (next == '!' || next == '?') {
+                            int end = html.indexOf('>', pos);
+                            pos = end < 0 ? length : end + 1;
+                        } else if (next == '/') {
+                            readEndTag();
+                        } else {
+                            readStartTag();
+                        }
+                        continue;
+                    }
+                }
+                text.append(c);
+                pos++;
+            }
+            flushText(text);
+        }
+
+        private void flushText(StringBuilder text) {
+            if (text.length() > 0) {
+                current().children.add(decode(text));
+                text.setLength(0);
+            }
+        }
+
+        private void readStartTag() {
+            pos++;
+            String tag = readName();
+            Map<String, String> attributes = new LinkedHashMap<>();
+            boolean selfClosing = false;
+            int length = html.length();
+            while (pos < length) {
+                char c = html.charAt(pos);
+                if (c == '>') {
+                    pos++;
+                    break;
+                }
+                if (c == '/') {
+                    selfClosing = true;
+                    pos++;
+                    continue;
+                }
+                if (Character.isWhitespace(c)) {
+                    pos++;
+                    continue;
+                }
+                selfClosing = false;
+                String name = readName();
+                if (name.isEmpty()) {
+                    pos++;
+                    continue;
+                }
+                skipWhitespace();
+                String value = "";
+                if (pos < length && html.charAt(pos) == '=') {
+                    pos++;
+                    skipWhitespace();
+                    value = readAttributeValue();
+                }
+                attributes.putIfAbsent(name, value);
+            }
+
+            if (SELF_CLOSING_SIBLINGS.contains(tag) && current().tagName.equals(tag)) {
+                open.remove(open.size() - 1);
+            }
+            Element element = new Element(tag, attributes, current());
+            current().children.add(element);
+            if (VOID_ELEMENTS.contains(tag) || selfClosing) {
+                return;
+            }
+            if (RAW_TEXT_ELEMENTS.contains(tag)) {
+                int end = indexOfIgnoreCase("</" + tag, pos);
+                String raw = html.substring(pos, end < 0 ? length : end);
+                if (!raw.isEmpty()) {
+                    element.children.add("script".equals(tag) || "style".equals(tag) ? raw : decode(raw));
+                }
+                pos = end < 0 ? length : end;
+                if (end >= 0) {
+                    readEndTag();
+                }
+                return;
+            }
+            open.add(element);
+        }
+
+        private void readEndTag() {
+            pos += 2;
+            String tag = readName();
+            int end = html.indexOf('>', pos);
+            pos = end < 0 ? html.length() : end + 1;
+            // Close up to the nearest matching open element; stray end tags are ignored
+            for (int i = open.size() - 1; i > 0; i--) {
+                if (open.get(i).tagName.equals(tag)) {
+                    while (open.size() > i) {
+                        open.remove(open.size() - 1);
+                    }
+                    return;
+                }
+            }
+        }
+
+        private String readName() {
+            int start = pos;
+            while (pos < html.length()) {
+                char c = html.charAt(pos);
+                if (Character.isWhitespace(c) || c == '>' || c == '/' || c == '=') {
+                    break;
+                }
+                pos++;
+            }
+            return html.substring(start, pos).toLowerCase(Locale.ENGLISH);
+        }
+
+        private String readAttributeValue() {
+            if (pos >= html.length()) {
+                return "";
+            }
+            char quote = html.charAt(pos);
+            int start;
+            int end;
+            if (quote == '"' || quote == '\'') {
+                start = pos + 1;
+                end = html.indexOf(quote, start);
+                if (end < 0) {
+                    end = html.length();
+                }
+                pos = Math.min(end + 1, html.length());
+            } else {
+                start = pos;
+                while (pos < html.length() && !Character.isWhitespace(html.charAt(pos)) && html.charAt(pos) != '>') {
+                    pos++;
+                }
+                end = pos;
+            }
+            return decode(html.substring(start, end));
+        }
+
+        private void skipWhitespace() {
+            while (pos < html.length() && Character.isWhitespace(html.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private int indexOfIgnoreCase(String needle, int from) {
+            int limit = html.length() - needle.length();
+            for (int i = from; i <= limit; i++) {
+                if (html.regionMatches(true, i, needle, 0, needle.length())) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    static String decode(CharSequence text) {
+        String value = text.toString();
+        if (value.indexOf('&') < 0) {
+            return value;
+        }
+        StringBuilder out = new StringBuilder(value.length());
+        int i = 0;
+        while (i < value.length()) {
+            char c = value.charAt(i);
+            int semicolon = c == '&' ? value.indexOf(';', i) : -1;
+            if (semicolon > i + 1 && semicolon - i <= 10) {
+                String entity = value.substring(i + 1, semicolon);
+                int codePoint = entityCodePoint(entity);
+                if (codePoint >= 0) {
+                    out.appendCodePoint(codePoint);
+                    i = semicolon + 1;
+                    continue;
+                }
+            }
+            out.append(c);
+            i++;
+        }
+        return out.toString();
+    }
+
+    private static int entityCodePoint(String entity) {
+        try {
+            if (entity.startsWith("#x") || entity.startsWith("#X")) {
+                return Integer.parseInt(entity.substring(2), 16);
+            }
+            if (entity.startsWith("#")) {
+                return Integer.parseInt(entity.substring(1));
+            }
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        switch (entity) {
+            case "amp": return '&';
+            case "lt": return '<';
+            case "gt": return '>';
+            case "quot": return '"';
+            case "apos": return '\'';
+            case "nbsp": return '\u00a0';
+            case "rupee": return '₹';
+            case "ndash": return '–';
+            case "mdash": return '—';
+            case "middot": return '·';
+            default: return -1;
+        }
+    }
+
+    // One compound selector (tag#id.class[attr...]) plus the combinator linking it to the previous one
+    private static final class Compound {
+        private String tag;
+        private boolean childOfPrevious;
+        private final List<String[]> conditions = new ArrayList<>();
+    }
+
+    private static final class Selector {
+        private static final Map<String, List<List<Compound>>> CACHE = new ConcurrentHashMap<>();
+
+        private static List<List<Compound>> parse(String css) {
+            return CACHE.computeIfAbsent(css, Selector::compile);
+        }
+
+        private static List<List<Compound>> compile(String css) {
+            List<List<Compound>> group = new ArrayList<>();
+            for (String part : splitTopLevel(css)) {
+                List<Compound> chain = compileChain(part.trim());
+                if (chain == null) {
+                    return Collections.emptyList();
+                }
+                group.add(chain);
+            }
+            return group;
+        }
+
+        private static List<String> splitTopLevel(String css) {
+            List<String> parts = new ArrayList<>();
+            int depth = 0;
+            char quote = 0;
+            int start = 0;
+            for (int i = 0; i < css.length(); i++) {
+                char c = css.charAt(i);
+                if (quote != 0) {
+                    if (c == quote) {
+                        quote = 0;
+                    }
+                } else if (c == '\'' || c == '"') {
+                    quote = c;
+                } else if (c == '[') {
+                    depth++;
+                } else if (c == ']') {
+                    depth--;
+                } else if (c == ',' && depth == 0) {
+                    parts.add(css.substring(start, i));
+                    start = i + 1;
+                }
+            }
+            parts.add(css.substring(start));
+            return parts;
+        }
+
+        // Returns null for anything outside the supported subset so the whole selector matches nothing
+        private static List<Compound> compileChain(String css) {
+            List<Compound> chain = new ArrayList<>();
+            Compound compound = new Compound();
+            boolean pendingChild = false;
+            int i = 0;
+            while (i < css.length()) {
+                char c = css.charAt(i);
+                if (Character.isWhitespace(c) || c == '>') {
+                    if (c == '>') {
+                        pendingChild = true;
+                    }
+                    if (!isEmpty(compound)) {
+                        chain.add(compound);
+                        compound = new Compound();
+                    }
+                    i++;
+                    continue;
+                }
+                if (isEmpty(compound)) {
+                    compound.childOfPrevious = pendingChild;
+                    pendingChild = false;
+                }
+                if (c == '*') {
+                    compound.tag = "*";
+                    i++;
+                } else if (c == '#' || c == '.') {
+                    int end = identifierEnd(css, i + 1);
+                    if (end == i + 1) {
+                        return null;
+                    }
+                    compound.conditions.add(new String[] {c == '#' ? "id" : "class", c == '#' ? "=" : "~=", css.substring(i + 1, end)});
+                    i = end;
+                } else if (c == '[') {
+                    int close = closingBracket(css, i);
+                    if (close < 0) {
+                        return null;
+                    }
+                    String[] condition = attributeCondition(css.substring(i + 1, close));
+                    if (condition == null) {
+                        return null;
+                    }
+                    compound.conditions.add(condition);
+                    i = close + 1;
+                } else if (Character.isLetter(c)) {
+                    int end = identifierEnd(css, i);
+                    compound.tag = css.substring(i, end).toLowerCase(Locale.ENGLISH);
+                    i = end;
+                } else {
+                    return null;
+                }
+            }
+            if (!isEmpty(compound)) {
+                chain.add(compound);
+            }
+            return chain.isEmpty() || pendingChild ? null : chain;
+        }
+
+        private static boolean isEmpty(Compound compound) {
+            return compound.tag == null && compound.conditions.isEmpty();
+        }
+
+        private static int identifierEnd(String css, int i) {
+            while (i < css.length() && (Character.isLetterOrDigit(css.charAt(i)) || css.charAt(i) == '-' || css.charAt(i) == '_')) {
+                i++;
+            }
+            return i;
+        }
+
+        private static int closingBracket(String css, int open) {
+            char quote = 0;
+            for (int i = open + 1; i < css.length(); i++) {
+                char c = css.charAt(i);
+                if (quote != 0) {
+                    if (c == quote) {
+                        quote = 0;
+                    }
+                } else if (c == '\'' || c == '"') {
+                    quote = c;
+                } else if (c == ']') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private static String[] attributeCondition(String body) {
+            int operator = -1;
+            for (int i = 0; i < body.length(); i++) {
+                if (body.charAt(i) == '=') {
+                    operator = i;
+                    break;
+                }
+            }
+            if (operator < 0) {
+                return new String[] {body.trim().toLowerCase(Locale.ENGLISH), "", ""};
+            }
+            String op = "=";
+            int nameEnd = operator;
+            if (operator > 0 && "*^$~|".indexOf(body.charAt(operator - 1)) >= 0) {
+                op = body.charAt(operator - 1) + "=";
+                nameEnd = operator - 1;
+            }
+            String value = body.substring(operator + 1).trim();
+            if (value.length() >= 2 && (value.charAt(0) == '\'' || value.charAt(0) == '"')
+                    && value.charAt(value.length() - 1) == value.charAt(0)) {
+                value = value.substring(1, value.length() - 1);
+            }
+            return new String[] {body.substring(0, nameEnd).trim().toLowerCase(Locale.ENGLISH), op, value};
+        }
+
+        private static boolean matches(Element element, List<Compound> chain, int index) {
+            Compound compound = chain.get(index);
+            if (!matchesCompound(element, compound)) {
+                return false;
+            }
+            if (index == 0) {
+                return true;
+            }
+            if (compound.childOfPrevious) {
+                Element parent = element.parent;
+                return parent != null && parent.parent != null && matches(parent, chain, index - 1);
+            }
+            for (Element ancestor = element.parent; ancestor != null && ancestor.parent != null; ancestor = ancestor.parent) {
+                if (matches(ancestor, chain, index - 1)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean matchesCompound(Element element, Compound compound) {
+            if (compound.tag != null && !"*".equals(compound.tag) && !compound.tag.equals(element.tagName)) {
+                return false;
+            }
+            for (String[] condition : compound.conditions) {
+                if (!element.attributes.containsKey(condition[0])) {
+                    return false;
+                }
+                String actual = element.attributes.get(condition[0]);
+                String expected = condition[2];
+                switch (condition[1]) {
+                    case "":
+                        break;
+                    case "=":
+                        if (!actual.equals(expected)) {
+                            return false;
+                        }
+                        break;
+                    case "*=":
+                        if (expected.isEmpty() || !actual.contains(expected)) {
+                            return false;
+                        }
+                        break;
+                    case "^=":
+                        if (expected.isEmpty() || !actual.startsWith(expected)) {
+                            return false;
+                        }
+                        break;
+                    case "$=":
+                        if (expected.isEmpty() || !actual.endsWith(expected)) {
+                            return false;
+                        }
+                        break;
+                    case "~=":
+                        if (!containsWord(actual, expected)) {
+                            return false;
+                        }
+                        break;
+                    case "|=":
+                        if (!actual.equals(expected) && !actual.startsWith(expected + "-")) {
+                            return false;
+                        }
+                        break;
+                    default:
+                        return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean containsWord(String value, String word) {
+            for (String token : value.trim().split("\\s+")) {
+                if (token.equals(word)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.openqa.selenium.By;
+
+// Learns which candidate in a fallback locator cascade actually matches on the current site.
+// Stats are keyed by cascade name plus the locator's toString() and survive between runs in
+// target/locator-ranking.properties, so the historical winner is tried first next time.
+public final class LocatorRanking {
+    private static final Path STORE = Paths.get("target", "locator-ranking.properties");
+    private static final String RUNS_KEY = "_runs";
+    private static final Map<String, Stats> STATS = new ConcurrentHashMap<>();
+    private static final boolean ENABLED = ConfigReader.getBooleanProperty("locatorRanking", true);
+    private static final int STALE_RUNS = ConfigReader.getIntProperty("locatorStaleRuns", 5);
+    private static final long CURRENT_RUN;
+
+    static {
+        CURRENT_RUN = load() + 1;
+        if (ENABLED) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                String report = staleReport(STALE_RUNS);
+                if (!report.isEmpty()) {
+                    Log.info(report);
+                }
+                save();
+            }, "locator-ranking-save"));
+        }
+    }
+
+    private LocatorRanking() {
+    }
+
+    public static List<By> order(String cascade, List<By> candidates) {
+        if (!ENABLED || candidates.size() < 2) {
+            return candidates;
+        }
+        // Snapshot the numbers first; other threads keep recording while we sort
+        Map<By, double[]> keys = new IdentityHashMap<>();
+        for (By locator : candidates) {
+            keys.put(locator, new double[] {-score(cascade, locator), averageMillis(cascade, locator)});
+        }
+        List<By> ordered = new ArrayList<>(candidates);
+        // List.sort is stable, so candidates without history keep their authored order
+        ordered.sort(Comparator.comparingDouble((By locator) -> keys.get(locator)[0])
+                .thenComparingDouble(locator -> keys.get(locator)[1]));
+        return ordered;
+    }
+
+    public static void recordHit(String cascade, By locator, long elapsedNanos) {
+        if (ENABLED) {
+            stats(cascade, locator).hit(elapsedNanos, CURRENT_RUN);
+        }
+    }
+
+    public static void recordMiss(String cascade, By locator, long elapsedNanos) {
+        if (ENABLED) {
+            stats(cascade, locator).miss(elapsedNanos, CURRENT_RUN);
+        }
+    }
+
+    // A miss observed without its own timing, e.g. one probe that checked the whole cascade at once:
+    // it counts against the score but adds no latency sample to the average
+    public static void recordMiss(String cascade, By locator) {
+        if (ENABLED) {
+            stats(cascade, locator).untimedMiss(CURRENT_RUN);
+        }
+    }
+
+    // Candidates that were tried recently but have not matched anything in the last `runs` runs
+    public static String staleReport(int runs) {
+        StringBuilder report = new StringBuilder();
+        for (Map.Entry<String, Stats> entry : new TreeMap<>(STATS).entrySet()) {
+            Stats stats = entry.getValue();
+            boolean triedRecently = stats.lastTriedRun > CURRENT_RUN - runs;
+            if (triedRecently && stats.lastHitRun <= CURRENT_RUN - runs) {
+                if (report.length() == 0) {
+                    report.append("Locator candidates with no match in the last ").append(runs).append(" run(s):");
+                }
+                report.append(System.lineSeparator()).append("  ").append(entry.getKey())
+                        .append(" (hits=").append(stats.hits).append(", misses=").append(stats.misses).append(')');
+            }
+        }
+        return report.toString();
+    }
+
+    private static double score(String cascade, By locator) {
+        Stats stats = STATS.get(key(cascade, locator));
+        if (stats == null) {
+            return 0.5;
+        }
+        synchronized (stats) {
+            return (stats.hits + 1.0) / (stats.hits + stats.misses + 2.0);
+        }
+    }
+
+    private static long averageMillis(String cascade, By locator) {
+        Stats stats = STATS.get(key(cascade, locator));
+        if (stats == null) {
+            return 0;
+        }
+        synchronized (stats) {
+            return stats.timed == 0 ? 0 : stats.totalMillis / stats.timed;
+        }
+    }
+
+    private static Stats stats(String cascade, By locator) {
+        return STATS.computeIfAbsent(key(cascade, locator), ignored -> new Stats());
+    }
+
+    private static String key(String cascade, By locator) {
+        return cascade + "|" + locator;
+    }
+
+    private static long load() {
+        if (!Files.isRegularFile(STORE)) {
+            return 0;
+        }
+        Properties properties = new Properties();
+        try (InputStream input = Files.newInputStream(STORE)) {
+            properties.load(input);
+        } catch (IOException e) {
+            Log.warn("Ignoring unreadable locator ranking " + STORE + ": " + e.getMessage());
+            return 0;
+        }
+        for (String name : properties.stringPropertyNames()) {
+            if (RUNS_KEY.equals(name)) {
+                continue;
+            }
+            String[] fields = properties.getProperty(name).split(",");
+            // Stores written before timed samples were counted have five fields; every attempt was timed
+            if (fields.length == 5 || fields.length == 6) {
+                try {
+                    Stats stats = new Stats();
+                    stats.hits = Long.parseLong(fields[0]);
+                    stats.misses = Long.parseLong(fields[1]);
+                    stats.totalMillis = Long.parseLong(fields[2]);
+                    stats.lastHitRun = Long.parseLong(fields[3]);
+                    stats.lastTriedRun = Long.parseLong(fields[4]);
+                    stats.timed = fields.length == 6 ? Long.parseLong(fields[5]) : stats.hits + stats.misses;
+                    STATS.put(name, stats);
+                } catch (NumberFormatException ignored) {
+                }
+            }
+        }
+        try {
+            return Long.parseLong(properties.getProperty(RUNS_KEY, "0"));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static void save() {
+        Properties properties = new Properties();
+        properties.setProperty(RUNS_KEY, String.valueOf(CURRENT_RUN));
+        for (Map.Entry<String, Stats> entry : STATS.entrySet()) {
+            Stats stats = entry.getValue();
+            synchronized (stats) {
+                properties.setProperty(entry.getKey(), stats.hits + "," + stats.misses + "," + stats.totalMillis
+                        + "," + stats.lastHitRun + "," + stats.lastTriedRun + "," + stats.timed);
+            }
+        }
+        try {
+            Files.createDirectories(STORE.getParent());
+            try (OutputStream output = Files.newOutputStream(STORE)) {
+                properties.store(output, "hits,misses,totalMillis,lastHitRun,lastTriedRun,timed per cascade|locator");
+            }
+        } catch (IOException e) {
+            Log.warn("Failed to save locator ranking " + STORE + ": " + e.getMessage());
+        }
+    }
+
+    private static final class Stats {
+        private long hits;
+        private long misses;
+        private long totalMillis;
+        private long lastHitRun;
+        private long lastTriedRun;
+        // Attempts that contributed to totalMillis
+        private long timed;
+
+        private synchronized void hit(long elapsedNanos, long run) {
+            hits++;
+            timed++;
+            totalMillis += elapsedNanos / 1_000_000;
+            lastHitRun = run;
+            lastTriedRun = run;
+        }
+
+        private synchronized void miss(long elapsedNanos, long run) {
+            misses++;
+            timed++;
+            totalMillis += elapsedNanos / 1_000_000;
+            lastTriedRun = run;
+        }
+
+        private synchronized void untimedMiss(long run) {
+            misses++;
+            lastTriedRun = run;
+        }
+    }
+}
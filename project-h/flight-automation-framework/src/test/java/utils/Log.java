@@ -0,0 +1,207 @@
+package utils;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Supplier;
+
+// Framework logger. Lines at or above logLevel go to stdout through one background appender
+// thread, so parallel tests do not contend on System.out. The queue is FIFO and a full queue
+// blocks the caller, so console order is the order lines were logged; at shutdown the appender
+// finishes its batch and is joined before anything left is printed. Lines below logLevel but at or above
+// logRingLevel are kept in a per-thread ring of the last logRingSize lines and only printed
+// when the test fails (see BaseTest). Anything below both levels costs one comparison: the
+// message supplier is never called.
+public final class Log {
+    public enum Level { TRACE, DEBUG, INFO, WARN, ERROR }
+
+    private static final Level CONSOLE_LEVEL = level("logLevel", Level.INFO);
+    private static final Level RING_LEVEL = level("logRingLevel", Level.DEBUG);
+    private static final int RING_SIZE = Math.max(0, ConfigReader.getIntProperty("logRingSize", 200));
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+    private static final ThreadLocal<Deque<String>> RECENT = ThreadLocal.withInitial(ArrayDeque::new);
+    private static final BlockingQueue<String> PENDING = new ArrayBlockingQueue<>(4096);
+    private static final String STOP = new String("stop");
+    private static final Thread APPENDER = new Thread(Log::drainForever, "log-appender");
+    private static volatile boolean stopped;
+
+    static {
+        APPENDER.setDaemon(true);
+        APPENDER.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(Log::shutdown, "log-flush"));
+    }
+
+    private Log() {
+    }
+
+    public static boolean isEnabled(Level level) {
+        return level.compareTo(CONSOLE_LEVEL) >= 0 || (RING_SIZE > 0 && level.compareTo(RING_LEVEL) >= 0);
+    }
+
+    // Whether lines at this level reach stdout now. The ring keeps DEBUG by default, so costly
+    // diagnostics-only work should check this rather than isEnabled
+    public static boolean isPrinted(Level level) {
+        return level.compareTo(CONSOLE_LEVEL) >= 0;
+    }
+
+    public static void trace(Supplier<String> message) {
+        log(Level.TRACE, message);
+    }
+
+    public static void debug(Supplier<String> message) {
+        log(Level.DEBUG, message);
+    }
+
+    public static void info(String message) {
+        log(Level.INFO, () -> message);
+    }
+
+    public static void warn(String message) {
+        log(Level.WARN, () -> message);
+    }
+
+    public static void error(String message) {
+        log(Level.ERROR, () -> message);
+    }
+
+    public static void log(Level level, Supplier<String> message) {
+        if (!isEnabled(level)) {
+            return;
+        }
+        String line = format(level, message.get());
+        if (level.compareTo(CONSOLE_LEVEL) >= 0) {
+            append(line);
+        } else {
+            Deque<String> recent = RECENT.get();
+            if (recent.size() >= RING_SIZE) {
+                recent.removeFirst();
+            }
+            recent.addLast(line);
+        }
+    }
+
+    // Prints the buffered verbose lines of the current thread, oldest first, then forgets them
+    public static void flushRecent(String reason) {
+        Deque<String> recent = RECENT.get();
+        if (recent.isEmpty()) {
+            return;
+        }
+        append("---- " + recent.size() + " buffered log line(s) for " + TestContext.getTestName() + " (" + reason + ") ----");
+        while (!recent.isEmpty()) {
+            append(recent.removeFirst());
+        }
+        append("---- end of buffered log ----");
+    }
+
+    public static void discardRecent() {
+        RECENT.get().clear();
+    }
+
+    private static String format(Level level, String message) {
+        return TIME.format(LocalTime.now()) + " " + String.format("%-5s", level) + " [" + TestContext.getTestName() + "] " + message;
+    }
+
+    // Blocks while the appender catches up instead of printing out of turn; interrupts are kept for the caller
+    private static void append(String line) {
+        if (stopped) {
+            print(new ArrayList<>(List.of(line)));
+            return;
+        }
+        boolean interrupted = false;
+        while (true) {
+            try {
+                PENDING.put(line);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        // Logged while shutdown was stopping the appender: nobody else will take it
+        if (stopped) {
+            drain();
+        }
+    }
+
+    private static void drainForever() {
+        List<String> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(PENDING.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            PENDING.drainTo(batch);
+            int stop = indexOfStop(batch);
+            if (stop >= 0) {
+                batch.remove(stop);
+                print(batch);
+                return;
+            }
+            print(batch);
+        }
+    }
+
+    private static int indexOfStop(List<String> batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            if (batch.get(i) == STOP) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void shutdown() {
+        try {
+            PENDING.put(STOP);
+            APPENDER.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        stopped = true;
+        drain();
+    }
+
+    private static void drain() {
+        List<String> batch = new ArrayList<>();
+        PENDING.drainTo(batch);
+        batch.removeIf(line -> line == STOP);
+        print(batch);
+    }
+
+    private static synchronized void print(List<String> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        StringBuilder out = new StringBuilder();
+        for (String line : batch) {
+            out.append(line).append(System.lineSeparator());
+        }
+        batch.clear();
+        System.out.print(out);
+        System.out.flush();
+    }
+
+    private static Level level(String key, Level defaultLevel) {
+        String value = System.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            value = ConfigReader.getProperty(key);
+        }
+        if (value == null || value.trim().isEmpty()) {
+            return defaultLevel;
+        }
+        try {
+            return Level.valueOf(value.trim().toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            return defaultLevel;
+        }
+    }
+}
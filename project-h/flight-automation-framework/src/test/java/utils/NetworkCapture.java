@@ -0,0 +1,164 @@
+package utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+import org.openqa.selenium.WebDriver;
+
+public final class NetworkCapture {
+    private static final Map<WebDriver, NetworkCapture> ACTIVE = new ConcurrentHashMap<>();
+    private static final String DEFAULT_PATTERN = "(?i).*(/api/|/rest/|/v\\d+/).*(search|result|fares?|flights?).*";
+    private static final int MAX_BODIES = 8;
+
+    private final WebDriver driver;
+    private final Pattern urlPattern;
+    private final Map<String, String> pendingUrls = new ConcurrentHashMap<>();
+    private final Deque<CapturedResponse> bodies = new ArrayDeque<>();
+    private final ExecutorService bodyFetcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "network-capture");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private NetworkCapture(WebDriver driver, Pattern urlPattern) {
+        this.driver = driver;
+        this.urlPattern = urlPattern;
+    }
+
+    public static void install(WebDriver driver) {
+        if (!CdpSession.isSupported(driver) || ACTIVE.containsKey(driver)) {
+            return;
+        }
+        String pattern = ConfigReader.getProperty("searchApiPattern");
+        if (pattern == null || pattern.trim().isEmpty()) {
+            pattern = DEFAULT_PATTERN;
+        }
+        NetworkCapture capture = new NetworkCapture(driver, Pattern.compile(pattern.trim()));
+        CdpSession.listen(driver, "Network.responseReceived", capture::onResponseReceived);
+        CdpSession.listen(driver, "Network.loadingFinished", capture::onLoadingFinished);
+        CdpSession.listen(driver, "Network.loadingFailed", event -> capture.pendingUrls.remove(CdpSession.string(event, "requestId")));
+        Map<String, Object> params = new HashMap<>();
+        params.put("maxResourceBufferSize", 16 * 1024 * 1024);
+        params.put("maxTotalBufferSize", 64 * 1024 * 1024);
+        CdpSession.send(driver, "Network.enable", params);
+        ACTIVE.put(driver, capture);
+        Log.info("Network capture enabled for search API pattern " + pattern.trim());
+    }
+
+    public static NetworkCapture forDriver(WebDriver driver) {
+        return ACTIVE.get(driver);
+    }
+
+    public static void clear(WebDriver driver) {
+        NetworkCapture capture = ACTIVE.get(driver);
+        if (capture != null) {
+            synchronized (capture) {
+                capture.bodies.clear();
+            }
+            capture.pendingUrls.clear();
+        }
+    }
+
+    public static void detach(WebDriver driver) {
+        NetworkCapture capture = ACTIVE.remove(driver);
+        if (capture != null) {
+            capture.bodyFetcher.shutdownNow();
+        }
+    }
+
+    public List<CapturedResponse> awaitResponses(Duration timeout) {
+        long deadline = System.currentTimeMillis() + timeout.toMillis();
+        synchronized (this) {
+            while (bodies.isEmpty() || !pendingUrls.isEmpty()) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    break;
+                }
+                try {
+                    wait(Math.min(remaining, 200));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            // Newest first: after a re-sort or re-search the latest payload reflects the page
+            List<CapturedResponse> snapshot = new ArrayList<>(bodies);
+            Collections.reverse(snapshot);
+            return snapshot;
+        }
+    }
+
+    private void onResponseReceived(Map<String, Object> event) {
+        Map<String, Object> response = CdpSession.child(event, "response");
+        String url = CdpSession.string(response, "url");
+        String mimeType = CdpSession.string(response, "mimeType");
+        String type = CdpSession.string(event, "type");
+        if (!("XHR".equals(type) || "Fetch".equals(type)) || !mimeType.contains("json")) {
+            return;
+        }
+        if (urlPattern.matcher(url).matches()) {
+            pendingUrls.put(CdpSession.string(event, "requestId"), url);
+        }
+    }
+
+    private void onLoadingFinished(Map<String, Object> event) {
+        String requestId = CdpSession.string(event, "requestId");
+        String url = pendingUrls.get(requestId);
+        if (url == null) {
+            return;
+        }
+        // getResponseBody round-trips to the browser, so keep it off the CDP event thread
+        bodyFetcher.execute(() -> {
+            try {
+                Map<String, Object> params = new HashMap<>();
+                params.put("requestId", requestId);
+                Map<String, Object> result = CdpSession.send(driver, "Network.getResponseBody", params);
+                String body = CdpSession.string(result, "body");
+                if (Boolean.TRUE.equals(result.get("base64Encoded"))) {
+                    body = new String(Base64.getDecoder().decode(body), StandardCharsets.UTF_8);
+                }
+                synchronized (this) {
+                    bodies.addLast(new CapturedResponse(url, body, System.currentTimeMillis()));
+                    while (bodies.size() > MAX_BODIES) {
+                        bodies.removeFirst();
+                    }
+                }
+            } catch (RuntimeException e) {
+                Log.warn("Failed to read search API response body for " + url + ": " + e.getMessage());
+            } finally {
+                pendingUrls.remove(requestId);
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        });
+    }
+
+    public static final class CapturedResponse {
+        private final String url;
+        private final String body;
+        private final long capturedAt;
+
+        CapturedResponse(String url, String body, long capturedAt) {
+            this.url = url;
+            this.body = body;
+            this.capturedAt = capturedAt;
+        }
+
+        public String getUrl() { return url; }
+        public String getBody() { return body; }
+        public long getCapturedAt() { return capturedAt; }
+    }
+}
@@ -0,0 +1,114 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+// Maps detached card data (snapshot elements, harvested maps) to results on a work-stealing pool.
+// Each card writes into its own slot, so the output keeps on-page order; null results are dropped
+// afterwards. Live WebElements must not come through here: one WebDriver session serialises
+// every call anyway. parseParallelism=1 forces serial parsing, 0 sizes the pool to the host, and
+// lists shorter than parseParallelThreshold are parsed serially because splitting costs more.
+public final class ParallelParser {
+    private static final int PARALLELISM = resolveParallelism(ConfigReader.getIntProperty("parseParallelism", 0));
+    private static final int THRESHOLD = ConfigReader.getIntProperty("parseParallelThreshold", 48);
+    private static volatile ForkJoinPool pool;
+
+    private ParallelParser() {
+    }
+
+    public static <T, R> List<R> map(List<T> items, Function<T, R> parser) {
+        return map(items, parser, worthSplitting(items.size()));
+    }
+
+    // Whether map(items, parser) would split a list of this size across the pool
+    public static boolean worthSplitting(int size) {
+        return PARALLELISM > 1 && size >= THRESHOLD;
+    }
+
+    public static <T, R> List<R> map(List<T> items, Function<T, R> parser, boolean parallel) {
+        Object[] slots = new Object[items.size()];
+        if (parallel && items.size() > 1) {
+            int grain = Math.max(1, items.size() / (PARALLELISM * 4));
+            pool().invoke(new Slice<>(items, parser, slots, 0, items.size(), grain));
+        } else {
+            for (int i = 0; i < slots.length; i++) {
+                slots[i] = parser.apply(items.get(i));
+            }
+        }
+        List<R> results = new ArrayList<>(slots.length);
+        for (Object slot : slots) {
+            if (slot != null) {
+                @SuppressWarnings("unchecked")
+                R result = (R) slot;
+                results.add(result);
+            }
+        }
+        return results;
+    }
+
+    public static int parallelism() {
+        return PARALLELISM;
+    }
+
+    private static ForkJoinPool pool() {
+        ForkJoinPool current = pool;
+        if (current == null) {
+            synchronized (ParallelParser.class) {
+                current = pool;
+                if (current == null) {
+                    // Workers of a dedicated pool are daemon threads and stay out of the common pool
+                    current = new ForkJoinPool(PARALLELISM);
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static int resolveParallelism(int configured) {
+        String override = System.getProperty("parseParallelism");
+        if (override != null && !override.trim().isEmpty()) {
+            try {
+                configured = Integer.parseInt(override.trim());
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return configured > 0 ? configured : Runtime.getRuntime().availableProcessors();
+    }
+
+    private static final class Slice<T, R> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<T> items;
+        private final Function<T, R> parser;
+        private final Object[] slots;
+        private final int from;
+        private final int to;
+        private final int grain;
+
+        private Slice(List<T> items, Function<T, R> parser, Object[] slots, int from, int to, int grain) {
+            this.items = items;
+            this.parser = parser;
+            this.slots = slots;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                for (int i = from; i < to; i++) {
+                    slots[i] = parser.apply(items.get(i));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Slice<>(items, parser, slots, from, middle, grain),
+                    new Slice<>(items, parser, slots, middle, to, grain));
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.Json;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public final class ReplayServer {
+    private static final String REPLAY_PATH = "/replay";
+    // The archive stores decoded bodies, so transport headers from the live response no longer apply
+    private static final Set<String> DROPPED_HEADERS = new HashSet<>(Arrays.asList(
+            "content-encoding", "content-length", "transfer-encoding", "connection", "keep-alive",
+            "strict-transport-security", "alt-svc", "set-cookie"));
+    private static volatile ReplayServer instance;
+
+    private final HttpServer server;
+    private final Map<String, List<RecordedExchange>> byUrl = new HashMap<>();
+    private final Map<String, List<RecordedExchange>> byPath = new HashMap<>();
+    private final Map<String, AtomicInteger> servedCounts = new ConcurrentHashMap<>();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final ExecutorService fetcher = Executors.newFixedThreadPool(4, runnable -> {
+        Thread thread = new Thread(runnable, "replay-router");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ReplayServer(Path archive) throws IOException {
+        load(archive);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext(REPLAY_PATH, this::handle);
+        server.setExecutor(Executors.newFixedThreadPool(8, runnable -> {
+            Thread thread = new Thread(runnable, "replay-server");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.start();
+    }
+
+    public static ReplayServer getInstance() {
+        ReplayServer current = instance;
+        if (current == null) {
+            synchronized (ReplayServer.class) {
+                current = instance;
+                if (current == null) {
+                    Path archive = TrafficRecorder.archivePath();
+                    try {
+                        current = new ReplayServer(archive);
+                    } catch (IOException e) {
+                        throw new RuntimeException("Failed to start replay server for " + archive, e);
+                    }
+                    Runtime.getRuntime().addShutdownHook(new Thread(current::stop, "replay-server-shutdown"));
+                    Log.info("Replay server listening on " + current.baseUrl() + " serving " + archive);
+                    instance = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    // Chrome refuses to rewrite an https request onto a plain-http URL, so paused requests are
+    // answered with Fetch.fulfillRequest using bytes pulled from this server. The page keeps
+    // its original origin and never touches the network.
+    public static void route(WebDriver driver) {
+        if (!CdpSession.isSupported(driver)) {
+            return;
+        }
+        ReplayServer server = getInstance();
+        CdpSession.listen(driver, "Fetch.requestPaused", event -> server.fetcher.execute(() -> server.fulfill(driver, event)));
+        Map<String, Object> pattern = new HashMap<>();
+        pattern.put("urlPattern", "http*");
+        pattern.put("requestStage", "Request");
+        Map<String, Object> params = new HashMap<>();
+        params.put("patterns", Collections.singletonList(pattern));
+        CdpSession.send(driver, "Fetch.enable", params);
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + REPLAY_PATH;
+    }
+
+    public String rewrite(String originalUrl) {
+        return baseUrl() + "?u=" + URLEncoder.encode(originalUrl, StandardCharsets.UTF_8);
+    }
+
+    private void fulfill(WebDriver driver, Map<String, Object> event) {
+        String requestId = CdpSession.string(event, "requestId");
+        Map<String, Object> request = CdpSession.child(event, "request");
+        Map<String, Object> params = new HashMap<>();
+        params.put("requestId", requestId);
+        try {
+            String method = CdpSession.string(request, "method");
+            HttpRequest.BodyPublisher body = request.containsKey("postData")
+                    ? HttpRequest.BodyPublishers.ofString(CdpSession.string(request, "postData"))
+                    : HttpRequest.BodyPublishers.noBody();
+            HttpResponse<byte[]> response = client.send(
+                    HttpRequest.newBuilder(URI.create(rewrite(CdpSession.string(request, "url"))))
+                            .method(method.isEmpty() ? "GET" : method, body)
+                            .build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            List<Map<String, Object>> headers = new ArrayList<>();
+            for (Map.Entry<String, List<String>> header : response.headers().map().entrySet()) {
+                if (header.getKey().startsWith(":")) {
+                    continue;
+                }
+                for (String value : header.getValue()) {
+                    Map<String, Object> pair = new HashMap<>();
+                    pair.put("name", header.getKey());
+                    pair.put("value", value);
+                    headers.add(pair);
+                }
+            }
+            params.put("responseCode", response.statusCode());
+            params.put("responseHeaders", headers);
+            params.put("body", Base64.getEncoder().encodeToString(response.body()));
+            CdpSession.sendAsync(driver, "Fetch.fulfillRequest", params);
+        } catch (IOException | RuntimeException e) {
+            params.put("errorReason", "ConnectionRefused");
+            CdpSession.sendAsync(driver, "Fetch.failRequest", params);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void stop() {
+        Log.info("Replay server: " + hits.get() + " hit(s), " + misses.get() + " miss(es)");
+        fetcher.shutdownNow();
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String originalUrl = readOriginalUrl(exchange.getRequestURI());
+            RecordedExchange recorded = originalUrl == null ? null : lookup(exchange.getRequestMethod(), originalUrl);
+            if (recorded == null) {
+                misses.incrementAndGet();
+                byte[] body = ("Not recorded: " + originalUrl).getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(404, body.length);
+                try (OutputStream output = exchange.getResponseBody()) {
+                    output.write(body);
+                }
+                return;
+            }
+            hits.incrementAndGet();
+            for (Map.Entry<String, String> header : recorded.headers.entrySet()) {
+                if (!DROPPED_HEADERS.contains(header.getKey().toLowerCase(Locale.ENGLISH))) {
+                    exchange.getResponseHeaders().add(header.getKey(), header.getValue());
+                }
+            }
+            exchange.sendResponseHeaders(recorded.status, recorded.body.length == 0 ? -1 : recorded.body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(recorded.body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private RecordedExchange lookup(String method, String url) {
+        String key = method.toUpperCase(Locale.ENGLISH) + " " + url;
+        List<RecordedExchange> candidates = byUrl.get(key);
+        if (candidates == null) {
+            key = method.toUpperCase(Locale.ENGLISH) + " " + stripQuery(url);
+            candidates = byPath.get(key);
+        }
+        if (candidates == null || candidates.isEmpty()) {
+            return null;
+        }
+        // Repeated requests replay the recorded sequence, then keep serving the last response. Counted
+        // under the key that matched, so query variants falling back to one path walk a single sequence
+        int served = servedCounts.computeIfAbsent(key, ignored -> new AtomicInteger()).getAndIncrement();
+        return candidates.get(Math.min(served, candidates.size() - 1));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void load(Path archive) throws IOException {
+        if (!Files.isRegularFile(archive)) {
+            throw new IOException("Traffic archive not found: " + archive + " (run once with trafficMode=record)");
+        }
+        Map<String, Object> har;
+        try (Reader reader = Files.newBufferedReader(archive, StandardCharsets.UTF_8)) {
+            har = new Json().newInput(reader).read(Json.MAP_TYPE);
+        }
+        Map<String, Object> log = (Map<String, Object>) har.getOrDefault("log", Collections.emptyMap());
+        List<Object> entries = (List<Object>) log.getOrDefault("entries", Collections.emptyList());
+        for (Object item : entries) {
+            Map<String, Object> entry = (Map<String, Object>) item;
+            Map<String, Object> request = CdpSession.child(entry, "request");
+            Map<String, Object> response = CdpSession.child(entry, "response");
+            Map<String, Object> content = CdpSession.child(response, "content");
+            String method = CdpSession.string(request, "method").toUpperCase(Locale.ENGLISH);
+            String url = CdpSession.string(request, "url");
+            Map<String, String> headers = new HashMap<>();
+            for (Object header : (List<Object>) response.getOrDefault("headers", Collections.emptyList())) {
+                Map<String, Object> pair = (Map<String, Object>) header;
+                headers.put(CdpSession.string(pair, "name"), CdpSession.string(pair, "value"));
+            }
+            String text = CdpSession.string(content, "text");
+            byte[] body = "base64".equals(CdpSession.string(content, "encoding"))
+                    ? Base64.getDecoder().decode(text)
+                    : text.getBytes(StandardCharsets.UTF_8);
+            RecordedExchange exchange = new RecordedExchange((int) CdpSession.number(response, "status"), headers, body);
+            byUrl.computeIfAbsent(method + " " + url, ignored -> new ArrayList<>()).add(exchange);
+            byPath.computeIfAbsent(method + " " + stripQuery(url), ignored -> new ArrayList<>()).add(exchange);
+        }
+        Log.info("Loaded " + entries.size() + " recorded exchange(s) from " + archive);
+    }
+
+    private static String readOriginalUrl(URI requestUri) {
+        String query = requestUri.getRawQuery();
+        if (query == null || !query.startsWith("u=")) {
+            return null;
+        }
+        return URLDecoder.decode(query.substring(2), StandardCharsets.UTF_8);
+    }
+
+    private static String stripQuery(String url) {
+        int index = url.indexOf('?');
+        return index < 0 ? url : url.substring(0, index);
+    }
+
+    private static final class RecordedExchange {
+        private final int status;
+        private final Map<String, String> headers;
+        private final byte[] body;
+
+        private RecordedExchange(int status, Map<String, String> headers, byte[] body) {
+            this.status = status <= 0 ? 200 : status;
+            this.headers = headers;
+            this.body = body;
+        }
+    }
+}
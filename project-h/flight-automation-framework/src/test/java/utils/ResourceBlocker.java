@@ -0,0 +1,253 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.openqa.selenium.WebDriver;
+
+public final class ResourceBlocker {
+    private static final Map<WebDriver, ResourceBlocker> ACTIVE = new ConcurrentHashMap<>();
+
+    // Rough per-request transfer sizes used when a resource type was never allowed through in this session
+    private static final Map<String, Long> DEFAULT_SIZES = new HashMap<>();
+
+    static {
+        DEFAULT_SIZES.put("Image", 35_000L);
+        DEFAULT_SIZES.put("Font", 40_000L);
+        DEFAULT_SIZES.put("Media", 250_000L);
+        DEFAULT_SIZES.put("Script", 60_000L);
+        DEFAULT_SIZES.put("XHR", 5_000L);
+        DEFAULT_SIZES.put("Fetch", 5_000L);
+        DEFAULT_SIZES.put("Stylesheet", 20_000L);
+    }
+
+    public enum Preset {
+        NONE(Collections.<String>emptyList(), Collections.<String>emptyList()),
+        MEDIA(Arrays.asList("Image", "Font", "Media"), Collections.<String>emptyList()),
+        AGGRESSIVE(Arrays.asList("Image", "Font", "Media"), Arrays.asList(
+                "*doubleclick.net*", "*googlesyndication.com*", "*googleadservices.com*",
+                "*google-analytics.com*", "*googletagmanager.com*", "*connect.facebook.net*",
+                "*hotjar.com*", "*clarity.ms*", "*criteo.*", "*taboola.com*", "*outbrain.com*",
+                "*promos.makemytrip.com*", "*/ads/*", "*/adserver/*", "*/promotions/*", "*/banner*"
+        ));
+
+        private final List<String> resourceTypes;
+        private final List<String> urlPatterns;
+
+        Preset(List<String> resourceTypes, List<String> urlPatterns) {
+            this.resourceTypes = resourceTypes;
+            this.urlPatterns = urlPatterns;
+        }
+
+        public static Preset fromConfig(String value) {
+            if (value == null || value.trim().isEmpty()) {
+                return NONE;
+            }
+            return Preset.valueOf(value.trim().toUpperCase(Locale.ENGLISH));
+        }
+    }
+
+    private final WebDriver driver;
+    private final Preset preset;
+    private final List<Pattern> allowlist;
+    private final List<Pattern> blockedUrlPatterns = new ArrayList<>();
+    private final Map<String, String> pendingTypes = new ConcurrentHashMap<>();
+    private final Map<String, long[]> allowedSizesByType = new ConcurrentHashMap<>();
+    private final Map<String, Integer> blockedByType = new LinkedHashMap<>();
+    private String currentUrl = "";
+    private int navigationCount;
+
+    private ResourceBlocker(WebDriver driver, Preset preset, List<Pattern> allowlist) {
+        this.driver = driver;
+        this.preset = preset;
+        this.allowlist = allowlist;
+        for (String pattern : preset.urlPatterns) {
+            blockedUrlPatterns.add(globToRegex(pattern));
+        }
+    }
+
+    public static void apply(WebDriver driver) {
+        String value = System.getProperty("resourceBlocking");
+        if (value == null || value.trim().isEmpty()) {
+            value = ConfigReader.getProperty("resourceBlocking");
+        }
+        Preset preset = Preset.fromConfig(value);
+        if (preset == Preset.NONE || !CdpSession.isSupported(driver)) {
+            return;
+        }
+        List<Pattern> allowlist = new ArrayList<>();
+        String allow = ConfigReader.getProperty("resourceBlockAllow");
+        if (allow != null) {
+            for (String pattern : allow.split(",")) {
+                if (!pattern.trim().isEmpty()) {
+                    allowlist.add(globToRegex(pattern.trim()));
+                }
+            }
+        }
+        ResourceBlocker blocker = new ResourceBlocker(driver, preset, allowlist);
+        blocker.install();
+        ACTIVE.put(driver, blocker);
+        Log.info("Resource blocking enabled: preset=" + preset + ", allowlist=" + allowlist.size() + " pattern(s)");
+    }
+
+    public static ResourceBlocker forDriver(WebDriver driver) {
+        return ACTIVE.get(driver);
+    }
+
+    public static void detach(WebDriver driver) {
+        ResourceBlocker blocker = ACTIVE.remove(driver);
+        if (blocker != null) {
+            blocker.reportAndReset();
+        }
+    }
+
+    public boolean shouldBlock(String url, String resourceType) {
+        if (isAllowlisted(url)) {
+            return false;
+        }
+        if (preset.resourceTypes.contains(resourceType)) {
+            return true;
+        }
+        for (Pattern pattern : blockedUrlPatterns) {
+            if (pattern.matcher(url).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized String reportAndReset() {
+        int requests = 0;
+        long bytes = 0;
+        StringBuilder perType = new StringBuilder();
+        for (Map.Entry<String, Integer> entry : blockedByType.entrySet()) {
+            requests += entry.getValue();
+            bytes += entry.getValue() * estimatedSize(entry.getKey());
+            if (perType.length() > 0) {
+                perType.append(", ");
+            }
+            perType.append(entry.getKey()).append('=').append(entry.getValue());
+        }
+        String report = "Resource blocking [" + preset + "] navigation #" + navigationCount + " " + currentUrl
+                + ": blocked " + requests + " request(s) (" + perType + "), ~" + (bytes / 1024) + " KB saved (est.)";
+        if (requests > 0) {
+            Log.info(report);
+        }
+        blockedByType.clear();
+        return report;
+    }
+
+    private void install() {
+        List<Map<String, Object>> patterns = new ArrayList<>();
+        for (String type : preset.resourceTypes) {
+            Map<String, Object> pattern = new HashMap<>();
+            pattern.put("urlPattern", "*");
+            pattern.put("resourceType", type);
+            pattern.put("requestStage", "Request");
+            patterns.add(pattern);
+        }
+        for (String url : preset.urlPatterns) {
+            Map<String, Object> pattern = new HashMap<>();
+            pattern.put("urlPattern", url);
+            pattern.put("requestStage", "Request");
+            patterns.add(pattern);
+        }
+
+        CdpSession.listen(driver, "Fetch.requestPaused", this::onRequestPaused);
+        CdpSession.listen(driver, "Network.responseReceived", this::onResponseReceived);
+        CdpSession.listen(driver, "Network.loadingFinished", this::onLoadingFinished);
+        CdpSession.listen(driver, "Network.loadingFailed", event -> pendingTypes.remove(CdpSession.string(event, "requestId")));
+        CdpSession.listen(driver, "Page.frameNavigated", this::onFrameNavigated);
+        CdpSession.send(driver, "Network.enable", new HashMap<>());
+        CdpSession.send(driver, "Page.enable", new HashMap<>());
+        Map<String, Object> params = new HashMap<>();
+        params.put("patterns", patterns);
+        CdpSession.send(driver, "Fetch.enable", params);
+    }
+
+    private void onRequestPaused(Map<String, Object> event) {
+        String requestId = CdpSession.string(event, "requestId");
+        String url = CdpSession.string(CdpSession.child(event, "request"), "url");
+        String type = CdpSession.string(event, "resourceType");
+        Map<String, Object> params = new HashMap<>();
+        params.put("requestId", requestId);
+        if (shouldBlock(url, type)) {
+            params.put("errorReason", "BlockedByClient");
+            CdpSession.sendAsync(driver, "Fetch.failRequest", params);
+            synchronized (this) {
+                blockedByType.merge(type, 1, Integer::sum);
+            }
+        } else {
+            CdpSession.sendAsync(driver, "Fetch.continueRequest", params);
+        }
+    }
+
+    private void onResponseReceived(Map<String, Object> event) {
+        pendingTypes.put(CdpSession.string(event, "requestId"), CdpSession.string(event, "type"));
+    }
+
+    private void onLoadingFinished(Map<String, Object> event) {
+        String type = pendingTypes.remove(CdpSession.string(event, "requestId"));
+        long length = CdpSession.number(event, "encodedDataLength");
+        if (type == null || length <= 0) {
+            return;
+        }
+        allowedSizesByType.compute(type, (key, totals) -> {
+            long[] updated = totals == null ? new long[2] : totals;
+            updated[0] += length;
+            updated[1]++;
+            return updated;
+        });
+    }
+
+    private void onFrameNavigated(Map<String, Object> event) {
+        Map<String, Object> frame = CdpSession.child(event, "frame");
+        if (frame.containsKey("parentId")) {
+            return;
+        }
+        synchronized (this) {
+            reportAndReset();
+            navigationCount++;
+            currentUrl = CdpSession.string(frame, "url");
+        }
+    }
+
+    private long estimatedSize(String type) {
+        long[] totals = allowedSizesByType.get(type);
+        if (totals != null && totals[1] > 0) {
+            return totals[0] / totals[1];
+        }
+        return DEFAULT_SIZES.getOrDefault(type, 10_000L);
+    }
+
+    private boolean isAllowlisted(String url) {
+        for (Pattern pattern : allowlist) {
+            if (pattern.matcher(url).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Pattern globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (char c : glob.toCharArray()) {
+            if (c == '*') {
+                regex.append(".*");
+            } else if (c == '?') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE);
+    }
+}
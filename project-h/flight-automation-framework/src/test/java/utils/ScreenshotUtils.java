@@ -19,7 +19,7 @@ public final class ScreenshotUtils {
     public static String takeScreenshot(WebDriver driver, String filePrefix) {
         try {
             File source = ((TakesScreenshot) driver).getScreenshotAs(OutputType.FILE);
-            String timestamp = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss").format(LocalDateTime.now());
+            String timestamp = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss_SSS").format(LocalDateTime.now());
             Path dir = Paths.get("screenshots");
             Files.createDirectories(dir);
             Path destination = dir.resolve(filePrefix + "_" + timestamp + ".png");
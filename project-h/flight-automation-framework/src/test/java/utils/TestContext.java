@@ -0,0 +1,21 @@
+package utils;
+
+public final class TestContext {
+    private static final ThreadLocal<String> TEST_NAME = new ThreadLocal<>();
+
+    private TestContext() {
+    }
+
+    public static void setTestName(String testName) {
+        TEST_NAME.set(testName);
+    }
+
+    public static String getTestName() {
+        String testName = TEST_NAME.get();
+        return testName == null ? "unscoped" : testName;
+    }
+
+    public static void clear() {
+        TEST_NAME.remove();
+    }
+}
@@ -0,0 +1,218 @@
+package utils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.Json;
+
+public final class TrafficRecorder {
+    private static final Map<WebDriver, TrafficRecorder> ACTIVE = new ConcurrentHashMap<>();
+    private static final int MAX_BODY_CHARS = 8 * 1024 * 1024;
+    // Sessions recorded earlier in this JVM, so pooled or parallel drivers add to one archive
+    private static final List<Map<String, Object>> SAVED_THIS_RUN = new ArrayList<>();
+
+    private final WebDriver driver;
+    private final Path archive;
+    private final List<String> recordedTypes;
+    private final Map<String, Map<String, Object>> inFlight = new ConcurrentHashMap<>();
+    private final List<Map<String, Object>> entries = new ArrayList<>();
+    private final ExecutorService bodyFetcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "traffic-recorder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private TrafficRecorder(WebDriver driver, Path archive, List<String> recordedTypes) {
+        this.driver = driver;
+        this.archive = archive;
+        this.recordedTypes = recordedTypes;
+    }
+
+    public static String trafficMode() {
+        String mode = System.getProperty("trafficMode");
+        if (mode == null || mode.trim().isEmpty()) {
+            mode = ConfigReader.getProperty("trafficMode");
+        }
+        return mode == null || mode.trim().isEmpty() ? "off" : mode.trim().toLowerCase(Locale.ENGLISH);
+    }
+
+    public static Path archivePath() {
+        String path = System.getProperty("trafficArchive");
+        if (path == null || path.trim().isEmpty()) {
+            path = ConfigReader.getProperty("trafficArchive");
+        }
+        if (path == null || path.trim().isEmpty()) {
+            return Paths.get("target", "recordings", "ixigo.har.json");
+        }
+        return Paths.get(path.trim());
+    }
+
+    public static void install(WebDriver driver) {
+        if (!CdpSession.isSupported(driver) || ACTIVE.containsKey(driver)) {
+            return;
+        }
+        String types = ConfigReader.getProperty("trafficRecordTypes");
+        if (types == null || types.trim().isEmpty()) {
+            types = "Document,XHR,Fetch,Script,Stylesheet";
+        }
+        TrafficRecorder recorder = new TrafficRecorder(driver, archivePath(), Arrays.asList(types.trim().split("\\s*,\\s*")));
+        CdpSession.listen(driver, "Network.requestWillBeSent", recorder::onRequest);
+        CdpSession.listen(driver, "Network.responseReceived", recorder::onResponse);
+        CdpSession.listen(driver, "Network.loadingFinished", recorder::onFinished);
+        CdpSession.listen(driver, "Network.loadingFailed", event -> recorder.inFlight.remove(CdpSession.string(event, "requestId")));
+        CdpSession.send(driver, "Network.enable", new HashMap<>());
+        ACTIVE.put(driver, recorder);
+        Log.info("Recording HTTP traffic to " + recorder.archive);
+    }
+
+    public static void detach(WebDriver driver) {
+        TrafficRecorder recorder = ACTIVE.remove(driver);
+        if (recorder != null) {
+            recorder.save();
+        }
+    }
+
+    private void onRequest(Map<String, Object> event) {
+        String type = CdpSession.string(event, "type");
+        if (!recordedTypes.contains(type)) {
+            return;
+        }
+        Map<String, Object> request = CdpSession.child(event, "request");
+        Map<String, Object> harRequest = new LinkedHashMap<>();
+        harRequest.put("method", CdpSession.string(request, "method"));
+        harRequest.put("url", CdpSession.string(request, "url"));
+        if (request.containsKey("postData")) {
+            Map<String, Object> postData = new LinkedHashMap<>();
+            postData.put("text", CdpSession.string(request, "postData"));
+            harRequest.put("postData", postData);
+        }
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("startedDateTime", Instant.now().toString());
+        entry.put("_resourceType", type);
+        entry.put("request", harRequest);
+        String requestId = CdpSession.string(event, "requestId");
+        // Redirects reuse the requestId: the hop that was in flight ends with redirectResponse and is
+        // kept as its own entry, so replay serves the 3xx and the browser follows it again
+        Map<String, Object> previous = inFlight.put(requestId, entry);
+        if (previous != null && event.containsKey("redirectResponse")) {
+            Map<String, Object> redirect = harResponse(CdpSession.child(event, "redirectResponse"));
+            CdpSession.child(redirect, "content").put("text", "");
+            previous.put("response", redirect);
+            // Queued behind pending body fetches so entries keep request order
+            bodyFetcher.execute(() -> {
+                synchronized (entries) {
+                    entries.add(previous);
+                }
+            });
+        }
+    }
+
+    private void onResponse(Map<String, Object> event) {
+        Map<String, Object> entry = inFlight.get(CdpSession.string(event, "requestId"));
+        if (entry == null) {
+            return;
+        }
+        entry.put("response", harResponse(CdpSession.child(event, "response")));
+    }
+
+    private static Map<String, Object> harResponse(Map<String, Object> response) {
+        Map<String, Object> harResponse = new LinkedHashMap<>();
+        harResponse.put("status", CdpSession.number(response, "status"));
+        List<Map<String, Object>> headers = new ArrayList<>();
+        for (Map.Entry<String, Object> header : CdpSession.child(response, "headers").entrySet()) {
+            Map<String, Object> pair = new LinkedHashMap<>();
+            pair.put("name", header.getKey());
+            pair.put("value", String.valueOf(header.getValue()));
+            headers.add(pair);
+        }
+        harResponse.put("headers", headers);
+        Map<String, Object> content = new LinkedHashMap<>();
+        content.put("mimeType", CdpSession.string(response, "mimeType"));
+        harResponse.put("content", content);
+        return harResponse;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void onFinished(Map<String, Object> event) {
+        String requestId = CdpSession.string(event, "requestId");
+        Map<String, Object> entry = inFlight.remove(requestId);
+        if (entry == null || !entry.containsKey("response")) {
+            return;
+        }
+        bodyFetcher.execute(() -> {
+            Map<String, Object> content = (Map<String, Object>) ((Map<String, Object>) entry.get("response")).get("content");
+            try {
+                Map<String, Object> params = new HashMap<>();
+                params.put("requestId", requestId);
+                Map<String, Object> result = CdpSession.send(driver, "Network.getResponseBody", params);
+                String body = CdpSession.string(result, "body");
+                if (body.length() <= MAX_BODY_CHARS) {
+                    content.put("text", body);
+                    if (Boolean.TRUE.equals(result.get("base64Encoded"))) {
+                        content.put("encoding", "base64");
+                    }
+                }
+            } catch (RuntimeException e) {
+                content.put("text", "");
+            }
+            synchronized (entries) {
+                entries.add(entry);
+            }
+        });
+    }
+
+    private void save() {
+        bodyFetcher.shutdown();
+        try {
+            bodyFetcher.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Map<String, Object> creator = new LinkedHashMap<>();
+        creator.put("name", "flight-automation-framework");
+        creator.put("version", "1.0");
+        Map<String, Object> log = new LinkedHashMap<>();
+        log.put("version", "1.2");
+        log.put("creator", creator);
+        Map<String, Object> har = new LinkedHashMap<>();
+        har.put("log", log);
+        synchronized (SAVED_THIS_RUN) {
+            synchronized (entries) {
+                SAVED_THIS_RUN.addAll(entries);
+            }
+            log.put("entries", new ArrayList<>(SAVED_THIS_RUN));
+            write(har);
+        }
+    }
+
+    private void write(Map<String, Object> har) {
+        try {
+            if (archive.getParent() != null) {
+                Files.createDirectories(archive.getParent());
+            }
+            try (Writer writer = Files.newBufferedWriter(archive, StandardCharsets.UTF_8)) {
+                writer.write(new Json().toJson(har));
+            }
+            Log.info("Saved " + SAVED_THIS_RUN.size() + " recorded exchange(s) to " + archive);
+        } catch (IOException e) {
+            Log.warn("Failed to save traffic archive " + archive + ": " + e.getMessage());
+        }
+    }
+}
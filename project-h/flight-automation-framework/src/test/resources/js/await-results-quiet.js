@@ -0,0 +1,82 @@
+// Resolves once the results list has changed and then gone quiet: a MutationObserver on the cards'
+// container restarts a timer on every change, and the callback fires after quietMillis with no
+// mutations. Silence alone is not enough, since a slow sort request leaves the old list untouched:
+// the window only closes after a mutation, or when the list no longer matches baseline (the
+// listSignature taken before the action, null if unknown). Otherwise it waits out timeoutMillis.
+// Expects locator-helpers.js to be prepended; runs through executeAsyncScript.
+var cardLocators = arguments[0], priceLocators = arguments[1];
+var quietMillis = arguments[2], timeoutMillis = arguments[3], baseline = arguments[4];
+var done = arguments[arguments.length - 1];
+var started = Date.now(), mutations = 0, quietTimer = null, finished = false, container = null;
+
+function containerOf(cards) {
+    var container = cards.length ? cards[0].parentElement : null;
+    while (container && container !== document.body) {
+        var holdsAll = true;
+        for (var i = 1; i < cards.length && holdsAll; i++) {
+            holdsAll = container.contains(cards[i]);
+        }
+        if (holdsAll) {
+            return container;
+        }
+        container = container.parentElement;
+    }
+    return document.body;
+}
+
+function finish(quiet) {
+    if (finished) {
+        return;
+    }
+    finished = true;
+    observer.disconnect();
+    clearTimeout(quietTimer);
+    clearTimeout(deadline);
+    var cards = firstVisibleMatches(cardLocators, document);
+    done({
+        quiet: quiet,
+        mutations: mutations,
+        elapsed: Date.now() - started,
+        locator: cards.locator,
+        signature: listSignature(cardLocators),
+        cards: cards.elements.map(function (card) {
+            return {priceText: priceTextOf(card, priceLocators), text: card.innerText || ''};
+        })
+    });
+}
+
+function restartQuietTimer() {
+    clearTimeout(quietTimer);
+    quietTimer = setTimeout(function () {
+        // A re-render can swap out the whole list; follow it to the new container before trusting the silence
+        if (!container.isConnected) {
+            watch();
+            restartQuietTimer();
+            return;
+        }
+        // Quiet but still empty means the list has not rendered yet; keep waiting for cards
+        if (firstVisibleMatches(cardLocators, document).elements.length) {
+            // Nothing has happened yet: leave the window open until the observer sees a change
+            if (mutations > 0 || (baseline !== null && listSignature(cardLocators) !== baseline)) {
+                finish(true);
+            }
+        } else {
+            watch();
+            restartQuietTimer();
+        }
+    }, quietMillis);
+}
+
+var observer = new MutationObserver(function (records) {
+    mutations += records.length;
+    restartQuietTimer();
+});
+function watch() {
+    observer.disconnect();
+    container = containerOf(firstVisibleMatches(cardLocators, document).elements);
+    observer.observe(container, {childList: true, subtree: true, characterData: true});
+}
+
+watch();
+var deadline = setTimeout(function () { finish(false); }, timeoutMillis);
+restartQuietTimer();
@@ -0,0 +1,111 @@
+// Waits for the typeahead under an input to offer the city and picks the option in the same call.
+// The listbox comes from the input's aria-controls/aria-owns (or its combobox wrapper); without
+// one, optionLocators are evaluated and only leaf-most matches count as options. A MutationObserver
+// re-checks on every DOM change: a matching option resolves at once, options that never mention the
+// city resolve with the first one after settleMillis without changes. names are the typed city plus
+// its AirportIndex aliases ("Bangalore", "Bengaluru"); code is its IATA code or null, matched as a
+// whole word. Expects locator-helpers.js to be prepended; runs through executeAsyncScript.
+var input = arguments[0], optionLocators = arguments[1], names = arguments[2], code = arguments[3];
+var settleMillis = arguments[4], timeoutMillis = arguments[5];
+var done = arguments[arguments.length - 1];
+var wanted = names.map(function (name) { return name.trim().toLowerCase(); });
+var codePattern = code ? new RegExp('(^|[^A-Za-z])' + code + '([^A-Za-z]|$)') : null;
+var started = Date.now(), settleTimer = null, finished = false;
+
+function textOf(el) {
+    return (el.innerText || el.textContent || '').trim();
+}
+
+function listbox() {
+    var owners = [input, input.closest('[role="combobox"]')];
+    for (var i = 0; i < owners.length; i++) {
+        var ids = owners[i] && (owners[i].getAttribute('aria-controls') || owners[i].getAttribute('aria-owns'));
+        var tokens = ids ? ids.split(/\s+/) : [];
+        for (var j = 0; j < tokens.length; j++) {
+            var el = document.getElementById(tokens[j]);
+            if (el && isVisible(el)) {
+                return el;
+            }
+        }
+    }
+    return null;
+}
+
+function options() {
+    var box = listbox(), candidates;
+    if (box) {
+        candidates = box.querySelectorAll('[role="option"]');
+        if (!candidates.length) {
+            candidates = box.querySelectorAll('li');
+        }
+        if (!candidates.length) {
+            candidates = box.children;
+        }
+        candidates = Array.prototype.slice.call(candidates);
+    } else {
+        candidates = firstVisibleMatches(optionLocators, document).elements;
+        candidates = candidates.filter(function (el) {
+            return !candidates.some(function (other) { return other !== el && el.contains(other); });
+        });
+    }
+    return candidates.filter(function (el) { return isVisible(el) && textOf(el); });
+}
+
+// 3: first line is a name, 2: first line starts with one or the code appears, 1: a name appears anywhere
+function score(el) {
+    var raw = textOf(el), text = raw.toLowerCase(), firstLine = text.split('\n')[0].trim(), best = 0;
+    for (var i = 0; i < wanted.length; i++) {
+        if (firstLine === wanted[i]) {
+            return 3;
+        }
+        best = Math.max(best, firstLine.indexOf(wanted[i]) === 0 ? 2 : text.indexOf(wanted[i]) >= 0 ? 1 : 0);
+    }
+    return codePattern && codePattern.test(raw) ? Math.max(best, 2) : best;
+}
+
+function finish(option, matched, count) {
+    if (finished) {
+        return;
+    }
+    finished = true;
+    observer.disconnect();
+    clearTimeout(settleTimer);
+    clearTimeout(deadline);
+    done({
+        option: option,
+        text: option ? textOf(option) : '',
+        matched: matched,
+        options: count,
+        elapsed: Date.now() - started
+    });
+}
+
+function check() {
+    var found = options(), best = null, bestScore = 0;
+    for (var i = 0; i < found.length; i++) {
+        var s = score(found[i]);
+        if (s > bestScore) {
+            best = found[i];
+            bestScore = s;
+        }
+    }
+    if (best) {
+        finish(best, true, found.length);
+        return;
+    }
+    clearTimeout(settleTimer);
+    if (found.length) {
+        settleTimer = setTimeout(function () {
+            var settled = options();
+            if (settled.length) {
+                finish(settled[0], false, settled.length);
+            }
+        }, settleMillis);
+    }
+}
+
+var observer = new MutationObserver(check);
+observer.observe(document.body, {childList: true, subtree: true, characterData: true, attributes: true,
+    attributeFilter: ['aria-controls', 'aria-owns', 'aria-expanded', 'class', 'style', 'hidden']});
+var deadline = setTimeout(function () { finish(null, false, options().length); }, timeoutMillis);
+check();
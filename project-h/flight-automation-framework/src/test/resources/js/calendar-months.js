@@ -0,0 +1,24 @@
+// The visible calendar month headers as {text, element} ("January 2026"), in document order. Walks text nodes
+// only and tests the nearest two ancestors, since headers often split month and year into spans.
+// DateUtils.parseMonthHeader has the final say. Expects locator-helpers.js to be prepended.
+var header = /^(jan|feb|mar|apr|may|jun|jul|aug|sep|oct|nov|dec)[a-z]{0,6}[\s,]*(\d{4}|['’]\d{2})$/i;
+var walker = document.createTreeWalker(document.body, NodeFilter.SHOW_TEXT);
+var seen = [], headers = [];
+for (var node = walker.nextNode(); node; node = walker.nextNode()) {
+    var value = node.nodeValue.trim();
+    if (value.length < 3 || value.length > 20 || !/^[a-z]{3}/i.test(value)) {
+        continue;
+    }
+    var el = node.parentElement;
+    for (var depth = 0; el && depth < 2; depth++, el = el.parentElement) {
+        var text = (el.innerText || '').replace(/\s+/g, ' ').trim();
+        if (header.test(text)) {
+            if (seen.indexOf(el) < 0 && isVisible(el)) {
+                seen.push(el);
+                headers.push({text: text, element: el});
+            }
+            break;
+        }
+    }
+}
+return headers;
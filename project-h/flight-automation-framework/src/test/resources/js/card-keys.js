@@ -0,0 +1,8 @@
+// Keys for a resolved card snapshot, with an occurrence suffix so identical cards stay distinct.
+// Expects locator-helpers.js to be prepended.
+var seen = {};
+return arguments[0].map(function (card) {
+    var base = cardKey(card);
+    seen[base] = (seen[base] || 0) + 1;
+    return base + '#' + seen[base];
+});
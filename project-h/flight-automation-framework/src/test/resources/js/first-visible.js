@@ -0,0 +1,20 @@
+// First visible match of a locator cascade in one round trip: {locator: index, element} or null.
+// Candidates are tried in order and evaluation stops at the first hit, so a broad fallback is never
+// walked when an earlier candidate matches; enabledOnly skips disabled controls. A candidate the
+// browser rejects as invalid is skipped rather than failing the whole cascade. Expects
+// locator-helpers.js to be prepended.
+var locators = arguments[0], enabledOnly = arguments[1] === true;
+for (var l = 0; l < locators.length; l++) {
+    var matches;
+    try {
+        matches = find(locators[l], document);
+    } catch (e) {
+        continue;
+    }
+    for (var i = 0; i < matches.length; i++) {
+        if (isVisible(matches[i]) && !(enabledOnly && matches[i].disabled)) {
+            return {locator: l, element: matches[i]};
+        }
+    }
+}
+return null;
@@ -0,0 +1,14 @@
+// Walks every flight card in one round trip; the first card locator with visible matches wins,
+// mirroring SearchResultsPage.getFlightCards(). Expects locator-helpers.js to be prepended.
+var cardLocators = arguments[0], priceLocators = arguments[1], airlineLocators = arguments[2];
+
+var cards = firstVisibleMatches(cardLocators, document);
+return cards.elements.map(function (card, index) {
+    return {
+        index: index,
+        locator: cards.locator,
+        airline: airlineOf(card, airlineLocators),
+        priceText: priceTextOf(card, priceLocators),
+        text: card.innerText || ''
+    };
+});
@@ -0,0 +1,79 @@
+// One step of the streaming harvester: scroll the results list by most of a viewport, wait briefly
+// for lazily loaded cards to attach, and return only cards whose key has not been seen this harvest.
+// Expects locator-helpers.js to be prepended; runs through executeAsyncScript.
+var cardLocators = arguments[0], priceLocators = arguments[1], airlineLocators = arguments[2];
+var reset = arguments[3], settleMillis = arguments[4], maxWaitMillis = arguments[5];
+var done = arguments[arguments.length - 1];
+
+if (reset || !window.__flightHarvestSeen) {
+    window.__flightHarvestSeen = new Set();
+}
+var seen = window.__flightHarvestSeen;
+
+function scrollerOf(element) {
+    for (var node = element ? element.parentElement : null; node && node !== document.body; node = node.parentElement) {
+        var overflow = window.getComputedStyle(node).overflowY;
+        if ((overflow === 'auto' || overflow === 'scroll') && node.scrollHeight > node.clientHeight) {
+            return node;
+        }
+    }
+    return document.scrollingElement || document.documentElement;
+}
+
+function collect() {
+    var cards = firstVisibleMatches(cardLocators, document);
+    var fresh = [];
+    cards.elements.forEach(function (card) {
+        var key = cardKey(card);
+        if (!key || seen.has(key)) {
+            return;
+        }
+        seen.add(key);
+        fresh.push({
+            key: key,
+            locator: cards.locator,
+            airline: airlineOf(card, airlineLocators),
+            priceText: priceTextOf(card, priceLocators),
+            text: card.innerText || ''
+        });
+    });
+    return {cards: fresh, rendered: cards.elements.length, last: cards.elements[cards.elements.length - 1]};
+}
+
+// The first step only reads what is already rendered
+var before = collect();
+if (reset) {
+    done({cards: before.cards, rendered: before.rendered, atEnd: false, seen: seen.size});
+    return;
+}
+
+var scroller = scrollerOf(before.last);
+var previousTop = scroller.scrollTop;
+scroller.scrollTop = previousTop + Math.max(200, Math.floor(scroller.clientHeight * 0.8));
+var moved = scroller.scrollTop !== previousTop;
+
+var quietTimer = null, finished = false;
+function finish() {
+    if (finished) {
+        return;
+    }
+    finished = true;
+    observer.disconnect();
+    clearTimeout(quietTimer);
+    clearTimeout(deadline);
+    var after = collect();
+    var bottom = scroller.scrollTop + scroller.clientHeight >= scroller.scrollHeight - 2;
+    done({
+        cards: before.cards.concat(after.cards),
+        rendered: after.rendered,
+        atEnd: !moved || (bottom && after.cards.length === 0),
+        seen: seen.size
+    });
+}
+var observer = new MutationObserver(function () {
+    clearTimeout(quietTimer);
+    quietTimer = setTimeout(finish, settleMillis);
+});
+observer.observe(document.body, {childList: true, subtree: true});
+quietTimer = setTimeout(finish, settleMillis);
+var deadline = setTimeout(finish, maxWaitMillis);
@@ -0,0 +1,80 @@
+// Shared helpers prepended to the in-page scripts. Locators are {using, value} pairs produced by
+// BasePage.toScriptLocators, so the page objects' own By lists drive the browser-side lookups.
+function isVisible(el) {
+    if (!el.getClientRects().length) {
+        return false;
+    }
+    var style = window.getComputedStyle(el);
+    return style.visibility !== 'hidden' && style.display !== 'none' && style.opacity !== '0';
+}
+
+function find(locator, root) {
+    if (locator.using === 'css selector') {
+        return Array.prototype.slice.call(root.querySelectorAll(locator.value));
+    }
+    if (locator.using === 'xpath') {
+        var snapshot = document.evaluate(locator.value, root, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);
+        var nodes = [];
+        for (var i = 0; i < snapshot.snapshotLength; i++) {
+            if (snapshot.snapshotItem(i).nodeType === 1) {
+                nodes.push(snapshot.snapshotItem(i));
+            }
+        }
+        return nodes;
+    }
+    return [];
+}
+
+function firstVisibleMatches(locators, root) {
+    for (var l = 0; l < locators.length; l++) {
+        var matches = find(locators[l], root).filter(isVisible);
+        if (matches.length) {
+            return {locator: l, elements: matches};
+        }
+    }
+    return {locator: -1, elements: []};
+}
+
+function priceTextOf(card, priceLocators) {
+    for (var i = 0; i < priceLocators.length; i++) {
+        var elements = find(priceLocators[i], card);
+        for (var j = 0; j < elements.length; j++) {
+            var text = isVisible(elements[j]) ? (elements[j].innerText || '').trim() : '';
+            if (/\d/.test(text)) {
+                return text;
+            }
+        }
+    }
+    return '';
+}
+
+function airlineOf(card, airlineLocators) {
+    for (var i = 0; i < airlineLocators.length; i++) {
+        var elements = find(airlineLocators[i], card);
+        for (var j = 0; j < elements.length; j++) {
+            if (!isVisible(elements[j])) {
+                continue;
+            }
+            var text = (elements[j].innerText || '').trim();
+            if (text) {
+                return text;
+            }
+            var alt = elements[j].getAttribute('alt');
+            if (alt && alt.trim()) {
+                return alt.trim();
+            }
+        }
+    }
+    return '';
+}
+
+// Content-derived identity: an id or data key when the card has one, otherwise its normalised text
+function cardKey(card) {
+    return card.id || card.getAttribute('data-key') || card.getAttribute('data-id')
+        || (card.innerText || '').replace(/\s+/g, ' ').trim().slice(0, 240);
+}
+
+// Order-sensitive fingerprint of the visible result list: changes when cards are added, removed or reordered
+function listSignature(cardLocators) {
+    return firstVisibleMatches(cardLocators, document).elements.map(cardKey).join('\n');
+}
@@ -0,0 +1,3 @@
+// The current listSignature, taken before an action so a later wait can tell whether the list changed.
+// Expects locator-helpers.js to be prepended.
+return listSignature(arguments[0]);